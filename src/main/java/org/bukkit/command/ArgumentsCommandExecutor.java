@@ -0,0 +1,34 @@
+package org.bukkit.command;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link CommandExecutor} which reads the arguments of a command from a
+ * {@link CommandArguments} view, so that arguments it does not need are
+ * never turned into Strings.
+ * <p>
+ * Commands dispatched through a command map pass their parsed arguments
+ * directly, and commands executed with an array of arguments are adapted
+ * to a view.
+ */
+public interface ArgumentsCommandExecutor extends CommandExecutor {
+
+    /**
+     * Executes the given command, returning its success.
+     * <br>
+     * If false is returned, then the "usage" plugin.yml entry for this command
+     * (if defined) will be sent to the player.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed
+     * @param label Alias of the command which was used
+     * @param args Passed command arguments
+     * @return true if a valid command, otherwise false
+     */
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull CommandArguments args);
+
+    @Override
+    public default boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        return onCommand(sender, command, label, CommandArguments.of(args));
+    }
+}
@@ -0,0 +1,58 @@
+package org.bukkit.command;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link TabCompleter} which may compute its completions asynchronously,
+ * for example when they come from a database.
+ * <p>
+ * When a newer completion request arrives from the same sender before the
+ * returned future has completed, the future is cancelled. Completers should
+ * check {@link CompletableFuture#isCancelled()} to stop work which is no
+ * longer needed.
+ * <p>
+ * Futures may be completed on any thread, and completers must not use the
+ * API of the server from other threads without synchronizing with the main
+ * thread.
+ */
+public interface AsyncTabCompleter extends TabCompleter {
+
+    /**
+     * Requests a list of possible completions for a command argument.
+     *
+     * @param sender Source of the command.  For players tab-completing a
+     *     command inside of a command block, this will be the player, not
+     *     the command block.
+     * @param command Command which was executed
+     * @param label Alias of the command which was used
+     * @param args The arguments passed to the command, including final
+     *     partial argument to be completed
+     * @return A future of the possible completions for the final argument,
+     *     which may be completed with null to default to the command
+     *     executor
+     */
+    @NotNull
+    public CompletableFuture<List<String>> onTabCompleteAsync(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args);
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default implementation only returns the completions if the future
+     * returned by {@link #onTabCompleteAsync(CommandSender, Command, String,
+     * String[])} has already completed, and null otherwise, so that the
+     * command falls back to its other completions.
+     */
+    @Override
+    @Nullable
+    public default List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        CompletableFuture<List<String>> future = onTabCompleteAsync(sender, command, label, args);
+        if (!future.isDone()) {
+            future.cancel(false);
+            return null;
+        }
+        return future.join();
+    }
+}
@@ -3,19 +3,18 @@ package org.bukkit.command;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.GameRule;
 import org.bukkit.Location;
 import org.bukkit.Server;
-import org.bukkit.entity.Player;
 import org.bukkit.entity.minecart.CommandMinecart;
 import org.bukkit.permissions.Permissible;
+import org.bukkit.permissions.PermissionMetrics;
 import org.bukkit.plugin.PluginDescriptionFile;
-import org.bukkit.util.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -32,6 +31,7 @@ public abstract class Command {
     protected String description;
     protected String usageMessage;
     private String permission;
+    private String[] permissionNodes;
     private String permissionMessage;
 
     protected Command(@NotNull String name) {
@@ -58,6 +58,23 @@ public abstract class Command {
      */
     public abstract boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args);
 
+    /**
+     * Executes the command with parsed arguments, returning its success
+     * <p>
+     * The default implementation creates the arguments as an array and
+     * passes them to {@link #execute(CommandSender, String, String[])}.
+     * Commands which can read their arguments from the view should override
+     * this method as well.
+     *
+     * @param sender Source object which is executing this command
+     * @param commandLabel The alias of the command used
+     * @param args All arguments passed to the command, split via ' '
+     * @return true if the command was successful, otherwise false
+     */
+    public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull CommandArguments args) {
+        return execute(sender, commandLabel, args.toArray());
+    }
+
     /**
      * Executed on tab completion for this command, returning a list of
      * options the player can tab through.
@@ -91,6 +108,29 @@ public abstract class Command {
         return tabComplete(sender, alias, args);
     }
 
+    /**
+     * Executed on tab completion for this command, returning a future of the
+     * options the player can tab through.
+     * <p>
+     * The default implementation completes the future immediately with the
+     * result of {@link #tabComplete(CommandSender, String, String[],
+     * Location)}. Commands whose completions are computed asynchronously
+     * may complete the future on any thread, and should stop computing them
+     * if the future is cancelled.
+     *
+     * @param sender Source object which is executing this command
+     * @param alias the alias being used
+     * @param args All arguments passed to the command, split via ' '
+     * @param location The position looked at by the sender, or null if none
+     * @return a future of the tab-completions for the specified arguments.
+     *     The list will never be null and may be immutable.
+     * @throws IllegalArgumentException if sender, alias, or args is null
+     */
+    @NotNull
+    public CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args, @Nullable Location location) throws IllegalArgumentException {
+        return CompletableFuture.completedFuture(tabComplete(sender, alias, args, location));
+    }
+
     @NotNull
     private List<String> tabComplete0(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args, @Nullable Location location) throws IllegalArgumentException {
         Preconditions.checkArgument(sender != null, "Sender cannot be null");
@@ -103,18 +143,7 @@ public abstract class Command {
 
         String lastWord = args[args.length - 1];
 
-        Player senderPlayer = sender instanceof Player ? (Player) sender : null;
-
-        ArrayList<String> matchedPlayers = new ArrayList<String>();
-        for (Player player : sender.getServer().getOnlinePlayers()) {
-            String name = player.getName();
-            if ((senderPlayer == null || senderPlayer.canSee(player)) && StringUtil.startsWithIgnoreCase(name, lastWord)) {
-                matchedPlayers.add(name);
-            }
-        }
-
-        Collections.sort(matchedPlayers, String.CASE_INSENSITIVE_ORDER);
-        return matchedPlayers;
+        return OnlinePlayerNames.complete(sender, lastWord);
     }
 
     /**
@@ -165,6 +194,7 @@ public abstract class Command {
      */
     public void setPermission(@Nullable String permission) {
         this.permission = permission;
+        this.permissionNodes = ((permission == null) || (permission.length() == 0)) ? null : permission.split(";");
     }
 
     /**
@@ -207,13 +237,21 @@ public abstract class Command {
             return true;
         }
 
-        for (String p : permission.split(";")) {
+        CommandMetrics metrics = (PermissionMetrics.isEnabled() && commandMap instanceof SimpleCommandMap) ? ((SimpleCommandMap) commandMap).getMetrics() : null;
+        long start = (metrics != null) ? System.nanoTime() : 0L;
+        boolean result = false;
+
+        for (String p : permissionNodes) {
             if (target.hasPermission(p)) {
-                return true;
+                result = true;
+                break;
             }
         }
 
-        return false;
+        if (metrics != null) {
+            metrics.recordPermissionTest(this, result, System.nanoTime() - start);
+        }
+        return result;
     }
 
     /**
@@ -277,6 +315,9 @@ public abstract class Command {
      */
     public boolean unregister(@NotNull CommandMap commandMap) {
         if (allowChangesFrom(commandMap)) {
+            if (commandMap instanceof SimpleCommandMap) {
+                ((SimpleCommandMap) commandMap).getMetrics().remove(this);
+            }
             this.commandMap = null;
             this.activeAliases = new ArrayList<String>(this.aliases);
             this.label = this.nextLabel;
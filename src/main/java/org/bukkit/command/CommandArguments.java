@@ -0,0 +1,268 @@
+package org.bukkit.command;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A view of the space separated arguments of a command line.
+ * <p>
+ * Arguments are split exactly like {@code line.split(" ")}, but parsing
+ * only records the position of every argument in the line. The String of
+ * an argument is only created when it is first requested with {@link
+ * #get(int)}, and is then reused, so commands which only compare or skip
+ * arguments do not need to allocate them.
+ * <p>
+ * Views returned by {@link #skip(int)} share the positions and Strings of
+ * the view they were created from.
+ */
+public final class CommandArguments {
+    private static final CommandArguments EMPTY = new CommandArguments(new Tokens("", new int[0], new String[0]), 0, 0);
+
+    private final Tokens tokens;
+    private final int offset;
+    private final int size;
+
+    private CommandArguments(@NotNull Tokens tokens, int offset, int size) {
+        this.tokens = tokens;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Splits a command line into arguments at every space, in the same way
+     * as {@code line.split(" ")}.
+     *
+     * @param line the line to split
+     * @return the arguments of the line
+     */
+    @NotNull
+    public static CommandArguments parse(@NotNull String line) {
+        Preconditions.checkArgument(line != null, "Line cannot be null");
+
+        int spaces = 0;
+        for (int i = line.indexOf(' '); i != -1; i = line.indexOf(' ', i + 1)) {
+            spaces++;
+        }
+
+        int[] bounds = new int[(spaces + 1) * 2];
+        int count = 0;
+        int start = 0;
+        for (int i = line.indexOf(' '); i != -1; i = line.indexOf(' ', start)) {
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = i;
+            count++;
+            start = i + 1;
+        }
+        bounds[count * 2] = start;
+        bounds[count * 2 + 1] = line.length();
+        count++;
+
+        if (spaces > 0) {
+            // Like String.split, drop trailing empty arguments
+            while (count > 0 && bounds[count * 2 - 2] == bounds[count * 2 - 1]) {
+                count--;
+            }
+        }
+
+        return new CommandArguments(new Tokens(line, bounds, new String[count]), 0, count);
+    }
+
+    /**
+     * Creates arguments from already split Strings, as if they had been
+     * parsed from the line formed by joining them with spaces.
+     *
+     * @param args the arguments
+     * @return the arguments as a view
+     */
+    @NotNull
+    public static CommandArguments of(@NotNull String... args) {
+        Preconditions.checkArgument(args != null, "Arguments cannot be null");
+        if (args.length == 0) {
+            return EMPTY;
+        }
+
+        int[] bounds = new int[args.length * 2];
+        int position = 0;
+        for (int i = 0; i < args.length; i++) {
+            Preconditions.checkArgument(args[i] != null, "Arguments cannot contain null");
+
+            bounds[i * 2] = position;
+            position += args[i].length();
+            bounds[i * 2 + 1] = position;
+            position++;
+        }
+
+        return new CommandArguments(new Tokens(String.join(" ", args), bounds, args.clone()), 0, args.length);
+    }
+
+    /**
+     * Gets the number of arguments.
+     *
+     * @return number of arguments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if there are no arguments.
+     *
+     * @return true if there are no arguments
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets an argument.
+     *
+     * @param index index of the argument
+     * @return the argument
+     * @throws IndexOutOfBoundsException if there is no such argument
+     */
+    @NotNull
+    public String get(int index) {
+        return tokens.get(offset + checkIndex(index));
+    }
+
+    /**
+     * Gets the length of an argument, without creating its String.
+     *
+     * @param index index of the argument
+     * @return length of the argument
+     * @throws IndexOutOfBoundsException if there is no such argument
+     */
+    public int length(int index) {
+        int token = offset + checkIndex(index);
+        return tokens.bounds[token * 2 + 1] - tokens.bounds[token * 2];
+    }
+
+    /**
+     * Checks if an argument is equal to the given String, ignoring case,
+     * without creating its String.
+     *
+     * @param index index of the argument
+     * @param value the String to compare to
+     * @return true if the argument is equal to the String
+     * @throws IndexOutOfBoundsException if there is no such argument
+     */
+    public boolean equalsIgnoreCase(int index, @NotNull String value) {
+        int token = offset + checkIndex(index);
+        int start = tokens.bounds[token * 2];
+        int length = tokens.bounds[token * 2 + 1] - start;
+        return length == value.length() && tokens.line.regionMatches(true, start, value, 0, length);
+    }
+
+    /**
+     * Checks if an argument starts with the given String, ignoring case,
+     * without creating its String.
+     *
+     * @param index index of the argument
+     * @param prefix the prefix to look for
+     * @return true if the argument starts with the prefix
+     * @throws IndexOutOfBoundsException if there is no such argument
+     */
+    public boolean startsWithIgnoreCase(int index, @NotNull String prefix) {
+        int token = offset + checkIndex(index);
+        int start = tokens.bounds[token * 2];
+        int length = tokens.bounds[token * 2 + 1] - start;
+        return length >= prefix.length() && tokens.line.regionMatches(true, start, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Gets the arguments from the given index onwards, joined by spaces.
+     * <p>
+     * This is the part of the original line spanning those arguments, so
+     * it is only created once and reflects the original spacing.
+     *
+     * @param index index of the first argument
+     * @return the joined arguments, or an empty String if the index is the
+     *     number of arguments
+     * @throws IndexOutOfBoundsException if the index is negative or larger
+     *     than the number of arguments
+     */
+    @NotNull
+    public String join(int index) {
+        if (index == size) {
+            return "";
+        }
+
+        int first = offset + checkIndex(index);
+        int last = offset + size - 1;
+        if (first == last) {
+            return tokens.get(first);
+        }
+        return tokens.line.substring(tokens.bounds[first * 2], tokens.bounds[last * 2 + 1]);
+    }
+
+    /**
+     * Gets a view of these arguments without the first ones.
+     *
+     * @param count number of arguments to skip
+     * @return the remaining arguments
+     * @throws IndexOutOfBoundsException if the count is negative or larger
+     *     than the number of arguments
+     */
+    @NotNull
+    public CommandArguments skip(int count) {
+        if (count < 0 || count > size) {
+            throw new IndexOutOfBoundsException("Cannot skip " + count + " of " + size + " arguments");
+        }
+        if (count == 0) {
+            return this;
+        }
+        return new CommandArguments(tokens, offset + count, size - count);
+    }
+
+    /**
+     * Creates all arguments and copies them into a new array.
+     *
+     * @return the arguments
+     */
+    @NotNull
+    public String[] toArray() {
+        String[] result = new String[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = tokens.get(offset + i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandArguments" + Arrays.toString(toArray());
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " arguments");
+        }
+        return index;
+    }
+
+    private static final class Tokens {
+        private final String line;
+        /**
+         * Start and end of every argument in the line.
+         */
+        private final int[] bounds;
+        private final String[] strings;
+
+        private Tokens(@NotNull String line, @NotNull int[] bounds, @NotNull String[] strings) {
+            this.line = line;
+            this.bounds = bounds;
+            this.strings = strings;
+        }
+
+        @NotNull
+        private String get(int token) {
+            String string = strings[token];
+            if (string == null) {
+                string = line.substring(bounds[token * 2], bounds[token * 2 + 1]);
+                strings[token] = string;
+            }
+            return string;
+        }
+    }
+}
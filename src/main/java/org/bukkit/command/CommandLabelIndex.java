@@ -0,0 +1,128 @@
+package org.bukkit.command;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable, case insensitive prefix index of command labels.
+ * <p>
+ * The labels are kept in a single array sorted by {@link
+ * String#CASE_INSENSITIVE_ORDER}, in which all labels starting with a given
+ * prefix are adjacent. Every node of the trie records the range of the
+ * array below it, so finding the labels with a prefix only walks the
+ * characters of the prefix and returns an already sorted view.
+ */
+final class CommandLabelIndex {
+    private final String[] labels;
+    private final Node root;
+    private final int version;
+
+    /**
+     * Indexes the given labels.
+     *
+     * @param labels the labels to index
+     * @param version version of the labels, to tell whether this index is
+     *     still current
+     */
+    CommandLabelIndex(@NotNull Collection<String> labels, int version) {
+        this.labels = labels.toArray(new String[labels.size()]);
+        Arrays.sort(this.labels, String.CASE_INSENSITIVE_ORDER);
+        this.root = build(0, this.labels.length, 0);
+        this.version = version;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the labels starting with the given prefix, ignoring case.
+     *
+     * @param prefix the prefix
+     * @return sorted, unmodifiable view of the matching labels
+     */
+    @NotNull
+    List<String> getLabels(@NotNull String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.get(fold(prefix.charAt(i)));
+        }
+
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(labels).subList(node.from, node.to));
+    }
+
+    @NotNull
+    private Node build(int from, int to, int depth) {
+        Node node = new Node(from, to);
+
+        // Labels ending at this node sort before all longer ones
+        int start = from;
+        while (start < to && labels[start].length() == depth) {
+            start++;
+        }
+
+        int count = 0;
+        char[] keys = new char[4];
+        Node[] children = new Node[4];
+        while (start < to) {
+            char key = fold(labels[start].charAt(depth));
+            int end = start + 1;
+            while (end < to && fold(labels[end].charAt(depth)) == key) {
+                end++;
+            }
+
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                children = Arrays.copyOf(children, count * 2);
+            }
+            keys[count] = key;
+            children[count] = build(start, end, depth + 1);
+            count++;
+            start = end;
+        }
+
+        node.keys = Arrays.copyOf(keys, count);
+        node.children = Arrays.copyOf(children, count);
+        return node;
+    }
+
+    /**
+     * Folds a character the same way as {@link
+     * String#CASE_INSENSITIVE_ORDER}, so that equal characters are adjacent
+     * in the sorted labels.
+     */
+    private static char fold(char c) {
+        if (c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Node {
+        private final int from;
+        private final int to;
+        /**
+         * Folded first character of each child, in ascending order.
+         */
+        private char[] keys;
+        private Node[] children;
+
+        private Node(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Nullable
+        private Node get(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return (index < 0) ? null : children[index];
+        }
+    }
+}
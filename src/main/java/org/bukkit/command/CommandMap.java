@@ -1,6 +1,7 @@
 package org.bukkit.command;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -128,4 +129,28 @@ public interface CommandMap {
      */
     @Nullable
     public List<String> tabComplete(@NotNull CommandSender sender, @NotNull String cmdLine, @Nullable Location location) throws IllegalArgumentException;
+
+    /**
+     * Looks for the requested command and executes an appropriate
+     * tab-completer if found, which may complete asynchronously. This method
+     * will also tab-complete partial commands.
+     * <p>
+     * The default implementation completes the future immediately with the
+     * result of {@link #tabComplete(CommandSender, String, Location)}.
+     *
+     * @param sender The command's sender.
+     * @param cmdLine The entire command string to tab-complete, excluding
+     *     initial slash.
+     * @param location The position looked at by the sender, or null if none
+     * @return a future of the possible tab-completions. The list may be
+     *     immutable, and will be null if no matching command of which sender
+     *     has permission.
+     * @throws CommandException Thrown when the tab-completer for the given
+     *     command fails with an unhandled exception
+     * @throws IllegalArgumentException if either sender or cmdLine are null
+     */
+    @NotNull
+    public default CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull String cmdLine, @Nullable Location location) throws IllegalArgumentException {
+        return CompletableFuture.completedFuture(tabComplete(sender, cmdLine, location));
+    }
 }
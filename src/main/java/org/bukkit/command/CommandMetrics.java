@@ -0,0 +1,395 @@
+package org.bukkit.command;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Execution metrics of the commands dispatched through a {@link
+ * SimpleCommandMap}, as returned by {@link SimpleCommandMap#getMetrics()}.
+ * <p>
+ * For every command, the number of executions and the distribution of
+ * their durations are recorded, as well as the latency of completing its
+ * arguments. Recording only costs reading the clock twice per command and
+ * is enabled by default.
+ * <p>
+ * Executions taking longer than the slow command threshold are logged by
+ * the command map, if a threshold is set.
+ * <p>
+ * The values of a command are discarded when it is unregistered from the
+ * command map, or when the commands of the map are cleared.
+ * <p>
+ * Permission tests of the commands are only recorded while {@link
+ * org.bukkit.permissions.PermissionMetrics} are enabled.
+ */
+public final class CommandMetrics {
+    volatile boolean enabled = true;
+    private volatile long slowThreshold = 0L;
+
+    private final Map<String, Command> knownCommands;
+    private final Map<Command, Stats> commands = new ConcurrentHashMap<Command, Stats>();
+
+    CommandMetrics(@NotNull Map<String, Command> knownCommands) {
+        this.knownCommands = knownCommands;
+    }
+
+    /**
+     * Gets whether command executions are currently recorded.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether command executions should be recorded.
+     * <p>
+     * Disabling the metrics keeps the values recorded so far, and also
+     * disables logging slow commands.
+     *
+     * @param value true to record command executions
+     */
+    public void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public void reset() {
+        commands.clear();
+    }
+
+    /**
+     * Gets the duration above which an execution is logged as slow.
+     *
+     * @return threshold in milliseconds, or 0 if slow commands are not
+     *     logged
+     */
+    public long getSlowCommandThreshold() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThreshold);
+    }
+
+    /**
+     * Sets the duration above which an execution is logged as slow.
+     *
+     * @param millis threshold in milliseconds, or 0 to not log slow
+     *     commands
+     */
+    public void setSlowCommandThreshold(long millis) {
+        Preconditions.checkArgument(millis >= 0, "Threshold cannot be negative");
+
+        slowThreshold = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Gets the recorded values of each command, by the label of the command
+     * prefixed with its fallback prefix, such as {@code bukkit:version}, so
+     * that commands of different plugins with the same name are kept apart.
+     * <p>
+     * Commands which are no longer known to the command map are listed by
+     * their name, prefixed with the name of their plugin if they have one,
+     * and followed by a number if that name is already taken.
+     *
+     * @return snapshot of the recorded values
+     */
+    @NotNull
+    public Map<String, Stats> getCommandStats() {
+        Map<Command, String> names = new IdentityHashMap<Command, String>();
+        for (Map.Entry<String, Command> entry : knownCommands.entrySet()) {
+            String name = names.get(entry.getValue());
+            if (name == null || (name.indexOf(':') == -1 && entry.getKey().indexOf(':') != -1)) {
+                names.put(entry.getValue(), entry.getKey());
+            }
+        }
+
+        Map<String, Stats> result = new HashMap<String, Stats>();
+        List<Map.Entry<Command, Stats>> unknown = new ArrayList<Map.Entry<Command, Stats>>();
+        for (Map.Entry<Command, Stats> entry : commands.entrySet()) {
+            String name = names.get(entry.getKey());
+            if (name == null) {
+                unknown.add(entry);
+            } else {
+                result.put(name, entry.getValue());
+            }
+        }
+
+        // Known labels are unique, so only the names of unknown commands
+        // may collide with each other or with a label
+        for (Map.Entry<Command, Stats> entry : unknown) {
+            Command command = entry.getKey();
+            String name = command.getName();
+            if (command instanceof PluginIdentifiableCommand) {
+                name = ((PluginIdentifiableCommand) command).getPlugin().getName().toLowerCase(Locale.ROOT) + ":" + name;
+            }
+
+            String unique = name;
+            for (int i = 2; result.containsKey(unique); i++) {
+                unique = name + "#" + i;
+            }
+            result.put(unique, entry.getValue());
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    /**
+     * Discards the recorded values of a command.
+     *
+     * @param command the command
+     */
+    void remove(@NotNull Command command) {
+        commands.remove(command);
+    }
+
+    /**
+     * Records an execution of a command.
+     *
+     * @param command the executed command
+     * @param nanos duration of the execution
+     * @param failed whether the execution threw an exception
+     * @return true if the execution should be logged as slow
+     */
+    boolean recordExecution(@NotNull Command command, long nanos, boolean failed) {
+        Stats stats = getStats(command);
+        stats.executions.record(nanos);
+        if (failed) {
+            stats.failures.incrementAndGet();
+        }
+
+        long threshold = slowThreshold;
+        return threshold > 0 && nanos >= threshold;
+    }
+
+    /**
+     * Records a tab completion of the arguments of a command.
+     *
+     * @param command the completed command
+     * @param nanos time until the completions were available
+     */
+    void recordTabComplete(@NotNull Command command, long nanos) {
+        getStats(command).tabCompletions.record(nanos);
+    }
+
+    /**
+     * Records a permission test of a command.
+     *
+     * @param command the tested command
+     * @param granted whether the test passed
+     * @param nanos duration of the test
+     */
+    void recordPermissionTest(@NotNull Command command, boolean granted, long nanos) {
+        Stats stats = getStats(command);
+        stats.permissionTests.record(nanos);
+        if (granted) {
+            stats.permissionsGranted.incrementAndGet();
+        }
+    }
+
+    @NotNull
+    private Stats getStats(@NotNull Command command) {
+        Stats stats = commands.get(command);
+        if (stats == null) {
+            stats = commands.computeIfAbsent(command, k -> new Stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Recorded values of a single command.
+     */
+    public static final class Stats {
+        private final Histogram executions = new Histogram();
+        private final Histogram tabCompletions = new Histogram();
+        private final Histogram permissionTests = new Histogram();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong permissionsGranted = new AtomicLong();
+
+        private Stats() {}
+
+        /**
+         * Gets the number of executions.
+         *
+         * @return number of executions
+         */
+        public long getExecutions() {
+            return executions.getCount();
+        }
+
+        /**
+         * Gets the number of executions which threw an exception.
+         *
+         * @return number of failed executions
+         */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * Gets the distribution of the durations of the executions.
+         *
+         * @return execution times
+         */
+        @NotNull
+        public Histogram getExecutionTimes() {
+            return executions;
+        }
+
+        /**
+         * Gets the distribution of the latencies of completing the arguments
+         * of the command, until the completions were available.
+         *
+         * @return tab completion times
+         */
+        @NotNull
+        public Histogram getTabCompleteTimes() {
+            return tabCompletions;
+        }
+
+        /**
+         * Gets the distribution of the durations of testing whether a sender
+         * has permission to use the command.
+         *
+         * @return permission test times
+         * @see Command#testPermissionSilent(CommandSender)
+         */
+        @NotNull
+        public Histogram getPermissionTestTimes() {
+            return permissionTests;
+        }
+
+        /**
+         * Gets the number of permission tests which passed.
+         *
+         * @return number of granted permission tests
+         */
+        public long getPermissionTestsGranted() {
+            return permissionsGranted.get();
+        }
+    }
+
+    /**
+     * A histogram of durations, with one bucket for every power of two
+     * microseconds.
+     */
+    public static final class Histogram {
+        /**
+         * Number of buckets. The last bucket holds every duration of about a
+         * second or more.
+         */
+        public static final int BUCKETS = 22;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() {}
+
+        private void record(long nanos) {
+            long micros = Math.max(nanos, 0L) / 1000L;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Gets the number of recorded durations.
+         *
+         * @return number of durations
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Gets the sum of the recorded durations, in nanoseconds.
+         *
+         * @return total duration
+         */
+        public long getTotalTime() {
+            return total.get();
+        }
+
+        /**
+         * Gets the longest recorded duration, in nanoseconds.
+         *
+         * @return maximum duration
+         */
+        public long getMaxTime() {
+            return max.get();
+        }
+
+        /**
+         * Gets the number of durations in a bucket.
+         *
+         * @param bucket index of the bucket, between 0 and {@link #BUCKETS}
+         *     exclusive
+         * @return number of durations
+         * @see #getBucketUpperBound(int)
+         */
+        public long getBucketCount(int bucket) {
+            return buckets.get(bucket);
+        }
+
+        /**
+         * Gets the exclusive upper bound of the durations in a bucket, in
+         * nanoseconds. The first bucket holds durations below a microsecond
+         * and every following bucket doubles the bound.
+         *
+         * @param bucket index of the bucket, between 0 and {@link #BUCKETS}
+         *     exclusive
+         * @return upper bound of the bucket, or {@link Long#MAX_VALUE} for
+         *     the last bucket
+         */
+        public static long getBucketUpperBound(int bucket) {
+            Preconditions.checkElementIndex(bucket, BUCKETS, "Bucket");
+
+            return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : (1000L << bucket);
+        }
+
+        /**
+         * Estimates a percentile of the recorded durations, as the upper
+         * bound of the bucket containing it.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return estimated duration in nanoseconds, at most the maximum
+         *     recorded duration, or 0 if nothing was recorded
+         */
+        public long getPercentile(double percentile) {
+            Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+
+            long[] counts = new long[BUCKETS];
+            long recorded = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                recorded += counts[i];
+            }
+            if (recorded == 0) {
+                return 0L;
+            }
+
+            long rank = Math.max(1L, (long) Math.ceil(recorded * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(getBucketUpperBound(i), getMaxTime());
+                }
+            }
+            return getMaxTime();
+        }
+    }
+}
@@ -14,6 +14,11 @@ public class FormattedCommandAlias extends Command {
 
     @Override
     public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+        return execute(sender, commandLabel, CommandArguments.of(args));
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull CommandArguments args) {
         boolean result = false;
         ArrayList<String> commands = new ArrayList<String>();
         for (String formatString : formatStrings) {
@@ -36,7 +41,7 @@ public class FormattedCommandAlias extends Command {
         return result;
     }
 
-    private String buildCommand(@NotNull String formatString, @NotNull String[] args) {
+    private String buildCommand(@NotNull String formatString, @NotNull CommandArguments args) {
         int index = formatString.indexOf('$');
         while (index != -1) {
             int start = index;
@@ -86,23 +91,18 @@ public class FormattedCommandAlias extends Command {
 
             int end = index;
 
-            if (required && position >= args.length) {
+            if (required && position >= args.size()) {
                 throw new IllegalArgumentException("Missing required argument " + (position + 1));
             }
 
-            StringBuilder replacement = new StringBuilder();
-            if (rest && position < args.length) {
-                for (int i = position; i < args.length; i++) {
-                    if (i != position) {
-                        replacement.append(' ');
-                    }
-                    replacement.append(args[i]);
-                }
-            } else if (position < args.length) {
-                replacement.append(args[position]);
+            String replacement = "";
+            if (rest && position < args.size()) {
+                replacement = args.join(position);
+            } else if (position < args.size()) {
+                replacement = args.get(position);
             }
 
-            formatString = formatString.substring(0, start) + replacement.toString() + formatString.substring(end);
+            formatString = formatString.substring(0, start) + replacement + formatString.substring(end);
             // Move index past the replaced data so we don't process it again
             index = start + replacement.length();
 
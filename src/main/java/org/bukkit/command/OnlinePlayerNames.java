@@ -0,0 +1,97 @@
+package org.bukkit.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The names of the online players, sorted for completion and reused for
+ * one tick.
+ * <p>
+ * Completing a player name only searches the sorted names for the prefix
+ * and checks whether the sender can see the matching players, instead of
+ * going through every online player for every request.
+ */
+final class OnlinePlayerNames {
+    /**
+     * How long a snapshot is reused, which is the length of a tick.
+     */
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private static volatile OnlinePlayerNames current;
+
+    private final Server server;
+    private final long created;
+    private final String[] names;
+    private final Player[] players;
+
+    private OnlinePlayerNames(@NotNull Server server, long created) {
+        Collection<? extends Player> online = server.getOnlinePlayers();
+        Player[] sorted = online.toArray(new Player[online.size()]);
+        Arrays.sort(sorted, Comparator.comparing(Player::getName, String.CASE_INSENSITIVE_ORDER));
+
+        this.server = server;
+        this.created = created;
+        this.players = sorted;
+        this.names = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            names[i] = sorted[i].getName();
+        }
+    }
+
+    /**
+     * Gets the names of the online players which start with the given
+     * prefix and can be seen by the sender.
+     *
+     * @param sender the sender completing a name
+     * @param prefix the prefix of the name
+     * @return new list of matching names, sorted ignoring case
+     */
+    @NotNull
+    static List<String> complete(@NotNull CommandSender sender, @NotNull String prefix) {
+        Player senderPlayer = sender instanceof Player ? (Player) sender : null;
+        OnlinePlayerNames snapshot = get(sender.getServer());
+
+        ArrayList<String> matchedPlayers = new ArrayList<String>();
+        for (int i = snapshot.lowerBound(prefix); i < snapshot.names.length && StringUtil.startsWithIgnoreCase(snapshot.names[i], prefix); i++) {
+            if (senderPlayer == null || senderPlayer.canSee(snapshot.players[i])) {
+                matchedPlayers.add(snapshot.names[i]);
+            }
+        }
+        return matchedPlayers;
+    }
+
+    @NotNull
+    private static OnlinePlayerNames get(@NotNull Server server) {
+        long now = System.nanoTime();
+        OnlinePlayerNames snapshot = current;
+        if (snapshot == null || snapshot.server != server || now - snapshot.created >= TICK_NANOS) {
+            snapshot = new OnlinePlayerNames(server, now);
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Finds the index of the first name which is not before the prefix.
+     */
+    private int lowerBound(@NotNull String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -2,6 +2,10 @@ package org.bukkit.command;
 
 import com.google.common.base.Preconditions;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,6 +35,26 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
      */
     @Override
     public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+        return execute(sender, commandLabel, args, null);
+    }
+
+    /**
+     * Executes the command, returning its success
+     * <p>
+     * The arguments are only created as Strings if the executor of this
+     * command is not an {@link ArgumentsCommandExecutor}.
+     *
+     * @param sender Source object which is executing this command
+     * @param commandLabel The alias of the command used
+     * @param args All arguments passed to the command, split via ' '
+     * @return true if the command was successful, otherwise false
+     */
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull CommandArguments args) {
+        return execute(sender, commandLabel, null, args);
+    }
+
+    private boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @Nullable String[] args, @Nullable CommandArguments arguments) {
         boolean success = false;
 
         if (!owningPlugin.isEnabled()) {
@@ -42,7 +66,11 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
         }
 
         try {
-            success = executor.onCommand(sender, this, commandLabel, args);
+            if (arguments != null && executor instanceof ArgumentsCommandExecutor) {
+                success = ((ArgumentsCommandExecutor) executor).onCommand(sender, this, commandLabel, arguments);
+            } else {
+                success = executor.onCommand(sender, this, commandLabel, (args != null) ? args : arguments.toArray());
+            }
         } catch (Throwable ex) {
             throw new CommandException("Unhandled exception executing command '" + commandLabel + "' in plugin " + owningPlugin.getDescription().getFullName(), ex);
         }
@@ -141,13 +169,7 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
                 completions = ((TabCompleter) executor).onTabComplete(sender, this, alias, args);
             }
         } catch (Throwable ex) {
-            StringBuilder message = new StringBuilder();
-            message.append("Unhandled exception during tab completion for command '/").append(alias).append(' ');
-            for (String arg : args) {
-                message.append(arg).append(' ');
-            }
-            message.deleteCharAt(message.length() - 1).append("' in plugin ").append(owningPlugin.getDescription().getFullName());
-            throw new CommandException(message.toString(), ex);
+            throw tabCompleteException(alias, args, ex);
         }
 
         if (completions == null) {
@@ -156,6 +178,106 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
         return completions;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the completer of this command, or its executor when there is no
+     * completer, is an {@link AsyncTabCompleter}, its future is used and
+     * is cancelled when the returned future is cancelled. Otherwise the
+     * completions are computed immediately.
+     * <p>
+     * If that future completes with null, the same fallbacks as {@link
+     * #tabComplete(CommandSender, String, String[])} apply: the executor if
+     * it implements {@link TabCompleter}, and then the names of the online
+     * players. They are only computed when needed, on the thread which
+     * requested the completions, through the scheduler if that is the main
+     * thread and the future completes on another thread.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args, @Nullable Location location) throws CommandException, IllegalArgumentException {
+        AsyncTabCompleter asyncCompleter = null;
+        if (completer instanceof AsyncTabCompleter) {
+            asyncCompleter = (AsyncTabCompleter) completer;
+        } else if (completer == null && executor instanceof AsyncTabCompleter) {
+            asyncCompleter = (AsyncTabCompleter) executor;
+        }
+
+        if (asyncCompleter == null) {
+            return super.tabCompleteAsync(sender, alias, args, location);
+        }
+
+        Preconditions.checkArgument(sender != null, "Sender cannot be null");
+        Preconditions.checkArgument(args != null, "Arguments cannot be null");
+        Preconditions.checkArgument(alias != null, "Alias cannot be null");
+
+        final CompletableFuture<List<String>> source;
+        try {
+            source = asyncCompleter.onTabCompleteAsync(sender, this, alias, args);
+        } catch (Throwable ex) {
+            throw tabCompleteException(alias, args, ex);
+        }
+
+        final boolean primaryThread = Bukkit.isPrimaryThread();
+        final TabCompleter skipped = asyncCompleter;
+        final CompletableFuture<List<String>> result = new CompletableFuture<List<String>>();
+        source.whenComplete((completions, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(tabCompleteException(alias, args, (ex instanceof CompletionException) ? ex.getCause() : ex));
+            } else if (completions != null) {
+                result.complete(completions);
+            } else if (primaryThread && !Bukkit.isPrimaryThread()) {
+                // The fallbacks use the API of the server, so they are handed
+                // back to the main thread which requested the completions
+                try {
+                    Bukkit.getScheduler().runTask(owningPlugin, () -> completeFallback(result, sender, alias, args, skipped));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            } else {
+                completeFallback(result, sender, alias, args, skipped);
+            }
+        });
+        result.whenComplete((completions, ex) -> {
+            if (result.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Completes the given future with the completions of the executor, if it
+     * is a {@link TabCompleter} other than the given one, or else with the
+     * names of the online players.
+     */
+    private void completeFallback(@NotNull CompletableFuture<List<String>> result, @NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args, @NotNull TabCompleter skipped) {
+        if (result.isDone()) {
+            return;
+        }
+
+        List<String> completions = null;
+        try {
+            if (executor instanceof TabCompleter && executor != skipped) {
+                completions = ((TabCompleter) executor).onTabComplete(sender, this, alias, args);
+            }
+            result.complete((completions == null) ? super.tabComplete(sender, alias, args) : completions);
+        } catch (Throwable ex) {
+            result.completeExceptionally(tabCompleteException(alias, args, ex));
+        }
+    }
+
+    @NotNull
+    private CommandException tabCompleteException(@NotNull String alias, @NotNull String[] args, @NotNull Throwable ex) {
+        StringBuilder message = new StringBuilder();
+        message.append("Unhandled exception during tab completion for command '/").append(alias).append(' ');
+        for (String arg : args) {
+            message.append(arg).append(' ');
+        }
+        message.deleteCharAt(message.length() - 1).append("' in plugin ").append(owningPlugin.getDescription().getFullName());
+        return new CommandException(message.toString(), ex);
+    }
+
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder(super.toString());
@@ -2,30 +2,51 @@ package org.bukkit.command;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.command.defaults.BukkitCommand;
+import org.bukkit.command.defaults.CommandMetricsCommand;
 import org.bukkit.command.defaults.HelpCommand;
+import org.bukkit.command.defaults.PermissionMetricsCommand;
 import org.bukkit.command.defaults.PluginsCommand;
 import org.bukkit.command.defaults.ReloadCommand;
 import org.bukkit.command.defaults.TimingsCommand;
 import org.bukkit.command.defaults.VersionCommand;
 import org.bukkit.entity.Player;
-import org.bukkit.util.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class SimpleCommandMap implements CommandMap {
-    protected final Map<String, Command> knownCommands = new HashMap<String, Command>();
+    protected final Map<String, Command> knownCommands = new KnownCommandsMap();
     private final Server server;
+    /**
+     * Incremented whenever a label is added to or removed from the known
+     * commands through the map itself. Removals through its views are not
+     * counted, which is why completions still look up every label. It is
+     * incremented after the change, so an index built while a label is being
+     * changed is rebuilt on its next use.
+     */
+    private volatile int labelsVersion;
+    private volatile CommandLabelIndex labelIndex;
+    /**
+     * The last incomplete asynchronous completion of each sender, which is
+     * cancelled when the sender requests another completion.
+     */
+    private final Map<CommandSender, CompletableFuture<List<String>>> pendingCompletions = new ConcurrentHashMap<CommandSender, CompletableFuture<List<String>>>();
+    private final CommandMetrics metrics = new CommandMetrics(knownCommands);
 
     public SimpleCommandMap(@NotNull final Server server) {
         this.server = server;
@@ -37,6 +58,8 @@ public class SimpleCommandMap implements CommandMap {
         register("bukkit", new ReloadCommand("reload"));
         register("bukkit", new PluginsCommand("plugins"));
         register("bukkit", new TimingsCommand("timings"));
+        register("bukkit", new CommandMetricsCommand("cmdmetrics", metrics));
+        register("bukkit", new PermissionMetricsCommand("permmetrics", metrics));
     }
 
     public void setFallbackCommands() {
@@ -131,26 +154,37 @@ public class SimpleCommandMap implements CommandMap {
      */
     @Override
     public boolean dispatch(@NotNull CommandSender sender, @NotNull String commandLine) throws CommandException {
-        String[] args = commandLine.split(" ");
+        CommandArguments args = CommandArguments.parse(commandLine);
 
-        if (args.length == 0) {
+        if (args.isEmpty()) {
             return false;
         }
 
-        String sentCommandLabel = args[0].toLowerCase(Locale.ROOT);
+        String sentCommandLabel = args.get(0).toLowerCase(Locale.ROOT);
         Command target = getCommand(sentCommandLabel);
 
         if (target == null) {
             return false;
         }
 
+        boolean timed = metrics.enabled;
+        long start = timed ? System.nanoTime() : 0L;
+        boolean failed = true;
         try {
             // Note: we don't return the result of target.execute as thats success / failure, we return handled (true) or not handled (false)
-            target.execute(sender, sentCommandLabel, Arrays.copyOfRange(args, 1, args.length));
+            target.execute(sender, sentCommandLabel, args.skip(1));
+            failed = false;
         } catch (CommandException ex) {
             throw ex;
         } catch (Throwable ex) {
             throw new CommandException("Unhandled exception executing '" + commandLine + "' in " + target, ex);
+        } finally {
+            if (timed) {
+                long time = System.nanoTime() - start;
+                if (metrics.recordExecution(target, time, failed)) {
+                    server.getLogger().warning("Command '/" + commandLine + "' executed by " + sender.getName() + " took " + TimeUnit.NANOSECONDS.toMillis(time) + "ms");
+                }
+            }
         }
 
         // return true as command was handled
@@ -161,11 +195,25 @@ public class SimpleCommandMap implements CommandMap {
     public synchronized void clearCommands() {
         for (Map.Entry<String, Command> entry : knownCommands.entrySet()) {
             entry.getValue().unregister(this);
+            // Also for commands registered to another map, as their metrics
+            // would keep their plugins loaded after a reload
+            metrics.remove(entry.getValue());
         }
         knownCommands.clear();
         setDefaultCommands();
     }
 
+    /**
+     * Gets the execution metrics of the commands dispatched through this
+     * command map.
+     *
+     * @return the command metrics of this map
+     */
+    @NotNull
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     @Nullable
     public Command getCommand(@NotNull String name) {
@@ -189,25 +237,29 @@ public class SimpleCommandMap implements CommandMap {
 
         if (spaceIndex == -1) {
             ArrayList<String> completions = new ArrayList<String>();
-            Map<String, Command> knownCommands = this.knownCommands;
+            Map<Command, Boolean> permitted = new IdentityHashMap<Command, Boolean>();
 
             final String prefix = (sender instanceof Player ? "/" : "");
 
-            for (Map.Entry<String, Command> commandEntry : knownCommands.entrySet()) {
-                Command command = commandEntry.getValue();
+            // Labels are already sorted, and aliases of the same command share a permission test
+            for (String name : getLabelIndex().getLabels(cmdLine)) {
+                Command command = knownCommands.get(name);
 
-                if (!command.testPermissionSilent(sender)) {
+                if (command == null) {
                     continue;
                 }
 
-                String name = commandEntry.getKey(); // Use the alias, not command name
+                Boolean allowed = permitted.get(command);
+                if (allowed == null) {
+                    allowed = command.testPermissionSilent(sender);
+                    permitted.put(command, allowed);
+                }
 
-                if (StringUtil.startsWithIgnoreCase(name, cmdLine)) {
-                    completions.add(prefix + name);
+                if (allowed) {
+                    completions.add(prefix + name); // Use the alias, not command name
                 }
             }
 
-            Collections.sort(completions, String.CASE_INSENSITIVE_ORDER);
             return completions;
         }
 
@@ -225,7 +277,13 @@ public class SimpleCommandMap implements CommandMap {
         String[] args = cmdLine.substring(spaceIndex + 1, cmdLine.length()).split(" ", -1);
 
         try {
-            return target.tabComplete(sender, commandName, args, location);
+            boolean timed = metrics.enabled;
+            long start = timed ? System.nanoTime() : 0L;
+            List<String> completions = target.tabComplete(sender, commandName, args, location);
+            if (timed) {
+                metrics.recordTabComplete(target, System.nanoTime() - start);
+            }
+            return completions;
         } catch (CommandException ex) {
             throw ex;
         } catch (Throwable ex) {
@@ -233,6 +291,68 @@ public class SimpleCommandMap implements CommandMap {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A future which has not completed yet is cancelled as soon as the same
+     * sender requests another asynchronous completion.
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull String cmdLine, @Nullable Location location) {
+        Preconditions.checkArgument(sender != null, "Sender cannot be null");
+        Preconditions.checkArgument(cmdLine != null, "Command line cannot null");
+
+        final CompletableFuture<List<String>> future;
+        int spaceIndex = cmdLine.indexOf(' ');
+        Command target = (spaceIndex == -1) ? null : getCommand(cmdLine.substring(0, spaceIndex));
+
+        if (spaceIndex == -1 || target == null || !target.testPermissionSilent(sender)) {
+            future = CompletableFuture.completedFuture((spaceIndex == -1) ? tabComplete(sender, cmdLine, location) : null);
+        } else {
+            String commandName = cmdLine.substring(0, spaceIndex);
+            String[] args = cmdLine.substring(spaceIndex + 1, cmdLine.length()).split(" ", -1);
+
+            try {
+                if (metrics.enabled) {
+                    long start = System.nanoTime();
+                    future = target.tabCompleteAsync(sender, commandName, args, location);
+                    future.whenComplete((completions, ex) -> metrics.recordTabComplete(target, System.nanoTime() - start));
+                } else {
+                    future = target.tabCompleteAsync(sender, commandName, args, location);
+                }
+            } catch (CommandException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new CommandException("Unhandled exception executing tab-completer for '" + cmdLine + "' in " + target, ex);
+            }
+        }
+
+        CompletableFuture<List<String>> previous;
+        if (future.isDone()) {
+            previous = pendingCompletions.remove(sender);
+        } else {
+            previous = pendingCompletions.put(sender, future);
+            future.whenComplete((completions, ex) -> pendingCompletions.remove(sender, future));
+        }
+
+        if (previous != null && previous != future) {
+            previous.cancel(false);
+        }
+        return future;
+    }
+
+    @NotNull
+    private CommandLabelIndex getLabelIndex() {
+        CommandLabelIndex index = labelIndex;
+        int version = labelsVersion;
+        if (index == null || index.getVersion() != version) {
+            index = new CommandLabelIndex(knownCommands.keySet(), version);
+            labelIndex = index;
+        }
+        return index;
+    }
+
     @NotNull
     public Collection<Command> getCommands() {
         return Collections.unmodifiableCollection(knownCommands.values());
@@ -253,8 +373,8 @@ public class SimpleCommandMap implements CommandMap {
             StringBuilder bad = new StringBuilder();
 
             for (String commandString : commandStrings) {
-                String[] commandArgs = commandString.split(" ");
-                Command command = getCommand(commandArgs[0]);
+                int spaceIndex = commandString.indexOf(' ');
+                Command command = getCommand((spaceIndex == -1) ? commandString : commandString.substring(0, spaceIndex));
 
                 if (command == null) {
                     if (bad.length() > 0) {
@@ -279,4 +399,80 @@ public class SimpleCommandMap implements CommandMap {
             }
         }
     }
+
+    /**
+     * The map of known commands, which tracks changes to its labels so the
+     * label index can be rebuilt when needed.
+     */
+    @SuppressWarnings("serial")
+    private final class KnownCommandsMap extends HashMap<String, Command> {
+
+        @Override
+        public Command put(String key, Command value) {
+            Command result = super.put(key, value);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends Command> map) {
+            super.putAll(map);
+            labelsVersion++;
+        }
+
+        @Override
+        public Command putIfAbsent(String key, Command value) {
+            Command result = super.putIfAbsent(key, value);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public Command computeIfAbsent(String key, Function<? super String, ? extends Command> mappingFunction) {
+            Command result = super.computeIfAbsent(key, mappingFunction);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public Command computeIfPresent(String key, BiFunction<? super String, ? super Command, ? extends Command> remappingFunction) {
+            Command result = super.computeIfPresent(key, remappingFunction);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public Command compute(String key, BiFunction<? super String, ? super Command, ? extends Command> remappingFunction) {
+            Command result = super.compute(key, remappingFunction);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public Command merge(String key, Command value, BiFunction<? super Command, ? super Command, ? extends Command> remappingFunction) {
+            Command result = super.merge(key, value, remappingFunction);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public Command remove(Object key) {
+            Command result = super.remove(key);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            boolean result = super.remove(key, value);
+            labelsVersion++;
+            return result;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            labelsVersion++;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package org.bukkit.command.defaults;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandMetrics;
+import org.bukkit.command.CommandSender;
+import org.bukkit.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+public class CommandMetricsCommand extends BukkitCommand {
+    private static final List<String> METRICS_SUBCOMMANDS = ImmutableList.of("count", "off", "on", "reset", "slow", "tab", "time");
+    private static final int MAX_ENTRIES = 10;
+    private final CommandMetrics metrics;
+
+    public CommandMetricsCommand(@NotNull String name, @NotNull CommandMetrics metrics) {
+        super(name);
+        Preconditions.checkArgument(metrics != null, "Metrics cannot be null");
+
+        this.metrics = metrics;
+        this.description = "Shows how long commands take to execute";
+        this.usageMessage = "/cmdmetrics <on|off|reset|time|count|tab|slow [milliseconds]>";
+        this.setPermission("bukkit.command.cmdmetrics");
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String currentAlias, @NotNull String[] args) {
+        if (!testPermission(sender)) return true;
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !"slow".equalsIgnoreCase(args[0]))) {
+            sender.sendMessage(ChatColor.RED + "Usage: " + usageMessage);
+            return false;
+        }
+
+        if ("on".equalsIgnoreCase(args[0])) {
+            metrics.setEnabled(true);
+            sender.sendMessage("Command metrics enabled");
+        } else if ("off".equalsIgnoreCase(args[0])) {
+            metrics.setEnabled(false);
+            sender.sendMessage("Command metrics disabled");
+        } else if ("reset".equalsIgnoreCase(args[0])) {
+            metrics.reset();
+            sender.sendMessage("Command metrics reset");
+        } else if ("time".equalsIgnoreCase(args[0])) {
+            sendStats(sender, "Commands by total execution time", Comparator.comparingLong(stats -> stats.getExecutionTimes().getTotalTime()), false);
+        } else if ("count".equalsIgnoreCase(args[0])) {
+            sendStats(sender, "Commands by executions", Comparator.comparingLong(CommandMetrics.Stats::getExecutions), false);
+        } else if ("tab".equalsIgnoreCase(args[0])) {
+            sendStats(sender, "Commands by total tab completion time", Comparator.comparingLong(stats -> stats.getTabCompleteTimes().getTotalTime()), true);
+        } else if ("slow".equalsIgnoreCase(args[0])) {
+            if (args.length == 2) {
+                long threshold;
+                try {
+                    threshold = Long.parseLong(args[1]);
+                } catch (NumberFormatException ex) {
+                    threshold = -1;
+                }
+                if (threshold < 0) {
+                    sender.sendMessage(ChatColor.RED + "Invalid threshold: " + args[1]);
+                    return false;
+                }
+                metrics.setSlowCommandThreshold(threshold);
+            }
+
+            long threshold = metrics.getSlowCommandThreshold();
+            sender.sendMessage((threshold == 0) ? "Slow commands are not logged" : "Commands taking " + threshold + "ms or longer are logged");
+        } else {
+            sender.sendMessage(ChatColor.RED + "Usage: " + usageMessage);
+            return false;
+        }
+        return true;
+    }
+
+    private void sendStats(@NotNull CommandSender sender, @NotNull String title, @NotNull Comparator<CommandMetrics.Stats> order, boolean tabComplete) {
+        Map<String, CommandMetrics.Stats> stats = metrics.getCommandStats();
+        if (!metrics.isEnabled() && stats.isEmpty()) {
+            sender.sendMessage("Please enable command metrics with /" + getName() + " on");
+            return;
+        }
+
+        List<Map.Entry<String, CommandMetrics.Stats>> entries = new ArrayList<Map.Entry<String, CommandMetrics.Stats>>();
+        for (Map.Entry<String, CommandMetrics.Stats> entry : stats.entrySet()) {
+            CommandMetrics.Histogram histogram = tabComplete ? entry.getValue().getTabCompleteTimes() : entry.getValue().getExecutionTimes();
+            if (histogram.getCount() > 0) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Map.Entry.comparingByValue(order.reversed()));
+
+        sender.sendMessage(ChatColor.GOLD + title + " (" + entries.size() + "):");
+        for (int i = 0; i < Math.min(MAX_ENTRIES, entries.size()); i++) {
+            String name = entries.get(i).getKey();
+            CommandMetrics.Stats entry = entries.get(i).getValue();
+            CommandMetrics.Histogram histogram = tabComplete ? entry.getTabCompleteTimes() : entry.getExecutionTimes();
+            long count = histogram.getCount();
+
+            StringBuilder line = new StringBuilder("    ").append(name).append(" Count: ").append(count);
+            if (!tabComplete) {
+                line.append(" Failed: ").append(entry.getFailures());
+            }
+            line.append(" Total: ").append(millis(histogram.getTotalTime()));
+            line.append(" Avg: ").append(millis(histogram.getTotalTime() / count));
+            line.append(" 95th: ").append(millis(histogram.getPercentile(95)));
+            line.append(" Max: ").append(millis(histogram.getMaxTime()));
+            sender.sendMessage(line.toString());
+        }
+    }
+
+    @NotNull
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1000000.0);
+    }
+
+    @NotNull
+    @Override
+    public List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        Preconditions.checkArgument(sender != null, "Sender cannot be null");
+        Preconditions.checkArgument(args != null, "Arguments cannot be null");
+        Preconditions.checkArgument(alias != null, "Alias cannot be null");
+
+        if (args.length == 1) {
+            return StringUtil.copyPartialMatches(args[0], METRICS_SUBCOMMANDS, new ArrayList<String>(METRICS_SUBCOMMANDS.size()));
+        }
+        return ImmutableList.of();
+    }
+}
@@ -10,6 +10,7 @@ import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.help.HelpMap;
 import org.bukkit.help.HelpTopic;
 import org.bukkit.help.HelpTopicComparator;
+import org.bukkit.help.HelpTopicIndex;
 import org.bukkit.help.IndexHelpTopic;
 import org.bukkit.util.ChatPaginator;
 import org.jetbrains.annotations.NotNull;
@@ -18,6 +19,8 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 
 public class HelpCommand extends BukkitCommand {
+    private volatile HelpTopicIndex topicIndex;
+
     public HelpCommand() {
         super("help");
         this.description = "Shows the help menu";
@@ -77,7 +80,7 @@ public class HelpCommand extends BukkitCommand {
             return true;
         }
 
-        ChatPaginator.ChatPage page = ChatPaginator.paginate(topic.getFullText(sender), pageNumber, pageWidth, pageHeight);
+        ChatPaginator.ChatPage page = topic.getPage(sender, pageNumber, pageWidth, pageHeight);
 
         StringBuilder header = new StringBuilder();
         header.append(ChatColor.YELLOW);
@@ -114,13 +117,12 @@ public class HelpCommand extends BukkitCommand {
         if (args.length == 1) {
             List<String> matchedTopics = new ArrayList<String>();
             String searchString = args[0];
-            for (HelpTopic topic : Bukkit.getServer().getHelpMap().getHelpTopics()) {
-                if (!topic.canSee(sender)) {
-                    continue;
-                }
-                String trimmedTopic = topic.getName().startsWith("/") ? topic.getName().substring(1) : topic.getName();
-
-                if (trimmedTopic.startsWith(searchString)) {
+            HelpTopicIndex index = getTopicIndex();
+            List<HelpTopic> topics = index.getTopics(searchString);
+            List<String> names = index.getNames(searchString);
+            for (int i = 0; i < topics.size(); i++) {
+                String trimmedTopic = names.get(i);
+                if (trimmedTopic.startsWith(searchString) && topics.get(i).canSee(sender)) {
                     matchedTopics.add(trimmedTopic);
                 }
             }
@@ -137,9 +139,18 @@ public class HelpCommand extends BukkitCommand {
         if (searchString.startsWith("/")) {
             searchString = searchString.substring(1);
         }
+        if (searchString.isEmpty()) {
+            return null;
+        }
 
-        for (HelpTopic topic : Bukkit.getServer().getHelpMap().getHelpTopics()) {
-            String trimmedTopic = topic.getName().startsWith("/") ? topic.getName().substring(1) : topic.getName();
+        // Only topics starting with the same letter can match
+        HelpTopicIndex index = getTopicIndex();
+        String firstLetter = searchString.substring(0, 1);
+        List<HelpTopic> topics = index.getTopics(firstLetter);
+        List<String> names = index.getNames(firstLetter);
+        for (int i = 0; i < topics.size(); i++) {
+            HelpTopic topic = topics.get(i);
+            String trimmedTopic = names.get(i);
 
             if (trimmedTopic.length() < searchString.length()) {
                 continue;
@@ -161,6 +172,23 @@ public class HelpCommand extends BukkitCommand {
         }
     }
 
+    /**
+     * Gets the index of the help topics of the server, which is created again
+     * whenever the topics changed.
+     *
+     * @return the index of the help topics
+     */
+    @NotNull
+    private HelpTopicIndex getTopicIndex() {
+        Collection<HelpTopic> topics = Bukkit.getServer().getHelpMap().getHelpTopics();
+        HelpTopicIndex index = topicIndex;
+        if (index == null || !index.isIndexOf(topics)) {
+            index = HelpTopicIndex.of(topics);
+            topicIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Computes the Dameraur-Levenshtein Distance between two strings. Adapted
      * from the algorithm at <a href="http://en.wikipedia.org/wiki/Damerau%E2%80%93Levenshtein_distance">Wikipedia: Damerau–Levenshtein distance</a>
@@ -0,0 +1,119 @@
+package org.bukkit.command.defaults;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandMetrics;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.PermissionMetrics;
+import org.bukkit.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+public class PermissionMetricsCommand extends BukkitCommand {
+    private static final List<String> METRICS_SUBCOMMANDS = ImmutableList.of("commands", "off", "on", "permissions", "plugins", "reset");
+    private static final int MAX_ENTRIES = 10;
+    private final CommandMetrics metrics;
+
+    public PermissionMetricsCommand(@NotNull String name, @NotNull CommandMetrics metrics) {
+        super(name);
+        Preconditions.checkArgument(metrics != null, "Metrics cannot be null");
+
+        this.metrics = metrics;
+        this.description = "Records metrics for permission checks";
+        this.usageMessage = "/permmetrics <on|off|reset|permissions|plugins|commands>";
+        this.setPermission("bukkit.command.permmetrics");
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String currentAlias, @NotNull String[] args) {
+        if (!testPermission(sender)) return true;
+        if (args.length != 1) {
+            sender.sendMessage(ChatColor.RED + "Usage: " + usageMessage);
+            return false;
+        }
+
+        if ("on".equalsIgnoreCase(args[0])) {
+            PermissionMetrics.setEnabled(true);
+            sender.sendMessage("Permission metrics enabled");
+        } else if ("off".equalsIgnoreCase(args[0])) {
+            PermissionMetrics.setEnabled(false);
+            sender.sendMessage("Permission metrics disabled");
+        } else if ("reset".equalsIgnoreCase(args[0])) {
+            PermissionMetrics.reset();
+            sender.sendMessage("Permission metrics reset");
+        } else if ("permissions".equalsIgnoreCase(args[0])) {
+            sendStats(sender, "Most checked permissions", PermissionMetrics.getPermissionStats());
+        } else if ("plugins".equalsIgnoreCase(args[0])) {
+            sendStats(sender, "Permission checks by plugin", PermissionMetrics.getPluginStats());
+        } else if ("commands".equalsIgnoreCase(args[0])) {
+            sendCommandStats(sender);
+        } else {
+            sender.sendMessage(ChatColor.RED + "Usage: " + usageMessage);
+            return false;
+        }
+        return true;
+    }
+
+    private void sendStats(@NotNull CommandSender sender, @NotNull String title, @NotNull Map<String, PermissionMetrics.Stats> stats) {
+        if (!PermissionMetrics.isEnabled() && stats.isEmpty()) {
+            sender.sendMessage("Please enable permission metrics with /" + getName() + " on");
+            return;
+        }
+
+        List<Map.Entry<String, PermissionMetrics.Stats>> entries = new ArrayList<Map.Entry<String, PermissionMetrics.Stats>>(stats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().getChecks(), a.getValue().getChecks()));
+
+        sender.sendMessage(ChatColor.GOLD + title + " (" + entries.size() + "):");
+        for (int i = 0; i < Math.min(MAX_ENTRIES, entries.size()); i++) {
+            String name = entries.get(i).getKey();
+            PermissionMetrics.Stats entry = entries.get(i).getValue();
+            long count = entry.getChecks();
+            long avg = (count == 0) ? 0 : entry.getTotalTime() / count;
+            sender.sendMessage("    " + name + " Count: " + count + " Granted: " + entry.getGranted() + " Hit rate: " + Math.round(entry.getHitRate() * 100) + "% Time: " + millis(entry.getTotalTime()) + " Avg: " + millis(avg));
+        }
+    }
+
+    private void sendCommandStats(@NotNull CommandSender sender) {
+        List<Map.Entry<String, CommandMetrics.Stats>> entries = new ArrayList<Map.Entry<String, CommandMetrics.Stats>>();
+        for (Map.Entry<String, CommandMetrics.Stats> entry : metrics.getCommandStats().entrySet()) {
+            if (entry.getValue().getPermissionTestTimes().getCount() > 0) {
+                entries.add(entry);
+            }
+        }
+        if (!PermissionMetrics.isEnabled() && entries.isEmpty()) {
+            sender.sendMessage("Please enable permission metrics with /" + getName() + " on");
+            return;
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue().getPermissionTestTimes().getCount(), a.getValue().getPermissionTestTimes().getCount()));
+
+        sender.sendMessage(ChatColor.GOLD + "Permission tests by command (" + entries.size() + "):");
+        for (int i = 0; i < Math.min(MAX_ENTRIES, entries.size()); i++) {
+            String name = entries.get(i).getKey();
+            CommandMetrics.Stats entry = entries.get(i).getValue();
+            CommandMetrics.Histogram tests = entry.getPermissionTestTimes();
+            long count = tests.getCount();
+            sender.sendMessage("    " + name + " Count: " + count + " Granted: " + entry.getPermissionTestsGranted() + " Time: " + millis(tests.getTotalTime()) + " Avg: " + millis(tests.getTotalTime() / count));
+        }
+    }
+
+    @NotNull
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1000000.0);
+    }
+
+    @NotNull
+    @Override
+    public List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        Preconditions.checkArgument(sender != null, "Sender cannot be null");
+        Preconditions.checkArgument(args != null, "Arguments cannot be null");
+        Preconditions.checkArgument(alias != null, "Alias cannot be null");
+
+        if (args.length == 1) {
+            return StringUtil.copyPartialMatches(args[0], METRICS_SUBCOMMANDS, new ArrayList<String>(METRICS_SUBCOMMANDS.size()));
+        }
+        return ImmutableList.of();
+    }
+}
@@ -0,0 +1,80 @@
+package org.bukkit.configuration;
+
+import com.google.common.base.Preconditions;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Configuration} which may be safely read and modified from
+ * multiple threads at once.
+ * <p>
+ * Reading values never blocks: every section of such a configuration keeps
+ * its values in a copy on write map, so a read always sees a complete value
+ * and iterating keys or values never fails because of a concurrent
+ * modification. Modifications are serialized by a single lock shared by all
+ * sections of the configuration, and are more expensive than in a regular
+ * {@link MemoryConfiguration}, so this is best suited for configurations
+ * which are read much more often than they are written.
+ * <p>
+ * Several modifications can be applied together with {@link
+ * #update(Consumer)}, and several values can be read consistently with
+ * {@link #read(Function)}.
+ * <p>
+ * The defaults and options of the configuration are not synchronized and
+ * should be set up before it is shared between threads.
+ * <p>
+ * This interface is only supported by subclasses of {@link
+ * MemoryConfiguration}, such as {@link ConcurrentMemoryConfiguration} and
+ * {@link org.bukkit.configuration.file.ConcurrentYamlConfiguration}.
+ */
+public interface ConcurrentConfiguration extends Configuration {
+
+    /**
+     * Applies several modifications to this configuration as one atomic
+     * update.
+     * <p>
+     * No other thread can modify this configuration while the action runs,
+     * and readers using {@link #read(Function)} will either see all or none
+     * of the modifications made by the action.
+     *
+     * @param action Action modifying this configuration
+     */
+    default void update(@NotNull Consumer<? super ConfigurationSection> action) {
+        Preconditions.checkArgument(action != null, "Action cannot be null");
+
+        ConfigurationLock lock = getLock(this);
+        lock.beginWrite();
+        try {
+            action.accept(this);
+        } finally {
+            lock.endWrite();
+        }
+    }
+
+    /**
+     * Reads several values from this configuration consistently.
+     * <p>
+     * The reader is first run without locking. If this configuration was
+     * modified while it ran, it is run again while holding the write lock,
+     * so the returned result never mixes values from before and after an
+     * update. The reader may therefore be run more than once and should not
+     * have side effects.
+     *
+     * @param reader Function reading from this configuration
+     * @param <T> Type of the result
+     * @return The result of the reader
+     */
+    default <T> T read(@NotNull Function<? super ConfigurationSection, T> reader) {
+        Preconditions.checkArgument(reader != null, "Reader cannot be null");
+
+        return getLock(this).read(() -> reader.apply(this));
+    }
+
+    @NotNull
+    private static ConfigurationLock getLock(@NotNull ConcurrentConfiguration configuration) {
+        ConfigurationLock lock = (configuration instanceof MemoryConfiguration) ? ((MemoryConfiguration) configuration).lock : null;
+        Preconditions.checkState(lock != null, "Concurrent configurations must extend MemoryConfiguration");
+        return lock;
+    }
+}
@@ -0,0 +1,28 @@
+package org.bukkit.configuration;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link MemoryConfiguration} which may be safely read and modified from
+ * multiple threads at once.
+ *
+ * @see ConcurrentConfiguration
+ */
+public class ConcurrentMemoryConfiguration extends MemoryConfiguration implements ConcurrentConfiguration {
+
+    /**
+     * Creates an empty {@link ConcurrentMemoryConfiguration} with no default
+     * values.
+     */
+    public ConcurrentMemoryConfiguration() {}
+
+    /**
+     * Creates an empty {@link ConcurrentMemoryConfiguration} using the
+     * specified {@link Configuration} as a source for all default values.
+     *
+     * @param defaults Default value provider
+     */
+    public ConcurrentMemoryConfiguration(@Nullable Configuration defaults) {
+        super(defaults);
+    }
+}
@@ -0,0 +1,22 @@
+package org.bukkit.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A listener which is notified whenever a value of a {@link
+ * MemoryConfiguration} is changed.
+ */
+@FunctionalInterface
+public interface ConfigurationChangeListener {
+
+    /**
+     * Called after the value at the given path has been changed.
+     *
+     * @param configuration the configuration that was changed
+     * @param path the full path of the changed value
+     * @param oldValue the previous value, or null if there was none
+     * @param newValue the new value, or null if the value was removed
+     */
+    void onChange(@NotNull Configuration configuration, @NotNull String path, @Nullable Object oldValue, @Nullable Object newValue);
+}
@@ -0,0 +1,61 @@
+package org.bukkit.configuration;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The write lock of a {@link ConcurrentConfiguration}, shared by all of its
+ * sections.
+ * <p>
+ * The lock also keeps a version which is incremented at the start and at
+ * the end of every outermost write, so it is odd while a write is in
+ * progress, which lets readers detect overlapping writes without locking.
+ */
+final class ConfigurationLock {
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long version;
+
+    void beginWrite() {
+        lock.lock();
+        if (lock.getHoldCount() == 1) {
+            version++;
+        }
+    }
+
+    void endWrite() {
+        if (lock.getHoldCount() == 1) {
+            version++;
+        }
+        lock.unlock();
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Runs a reader without locking, and again while holding the lock if a
+     * write overlapped it.
+     */
+    <T> T read(@NotNull Supplier<T> reader) {
+        long start = version;
+        if ((start & 1) == 0) {
+            T result = reader.get();
+            if (version == start) {
+                return result;
+            }
+        }
+
+        lock.lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
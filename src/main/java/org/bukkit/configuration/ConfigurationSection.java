@@ -636,6 +636,63 @@ public interface ConfigurationSection {
     @NotNull
     public List<Map<?, ?>> getMapList(@NotNull String path);
 
+    /**
+     * Gets the requested List of Integer by path as an array of int.
+     * <p>
+     * If the List does not exist but a default value has been specified, this
+     * will return the default value. If the List does not exist and no
+     * default value was specified, this will return an empty array.
+     * <p>
+     * This method will attempt to cast any values into a int if possible,
+     * but may miss any values out if they are not compatible. Unlike {@link
+     * #getIntegerList(String)}, the values are not boxed. If the values are
+     * stored as an array of int, that array is returned without being
+     * copied, so it is shared with this section and must not be modified.
+     *
+     * @param path Path of the List to get.
+     * @return Requested array of int.
+     */
+    @NotNull
+    public int[] getIntArray(@NotNull String path);
+
+    /**
+     * Gets the requested List of Long by path as an array of long.
+     * <p>
+     * If the List does not exist but a default value has been specified, this
+     * will return the default value. If the List does not exist and no
+     * default value was specified, this will return an empty array.
+     * <p>
+     * This method will attempt to cast any values into a long if possible,
+     * but may miss any values out if they are not compatible. Unlike {@link
+     * #getLongList(String)}, the values are not boxed. If the values are
+     * stored as an array of long, that array is returned without being
+     * copied, so it is shared with this section and must not be modified.
+     *
+     * @param path Path of the List to get.
+     * @return Requested array of long.
+     */
+    @NotNull
+    public long[] getLongArray(@NotNull String path);
+
+    /**
+     * Gets the requested List of Double by path as an array of double.
+     * <p>
+     * If the List does not exist but a default value has been specified, this
+     * will return the default value. If the List does not exist and no
+     * default value was specified, this will return an empty array.
+     * <p>
+     * This method will attempt to cast any values into a double if possible,
+     * but may miss any values out if they are not compatible. Unlike {@link
+     * #getDoubleList(String)}, the values are not boxed. If the values are
+     * stored as an array of double, that array is returned without being
+     * copied, so it is shared with this section and must not be modified.
+     *
+     * @param path Path of the List to get.
+     * @return Requested array of double.
+     */
+    @NotNull
+    public double[] getDoubleArray(@NotNull String path);
+
     // Bukkit
     /**
      * Gets the requested object at the given path.
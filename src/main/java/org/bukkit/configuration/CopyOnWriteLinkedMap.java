@@ -0,0 +1,142 @@
+package org.bukkit.configuration;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An insertion ordered map which copies its contents on every modification,
+ * so that it can be read and iterated from any thread without locking.
+ * <p>
+ * Reads always see a complete snapshot of the map. Modifications are
+ * serialized on the map itself and cost a copy of the whole map, which
+ * makes this only suitable for maps that are read much more often than
+ * they are written.
+ * <p>
+ * The contents of the map can also be replaced at once by staging them: the
+ * thread staging the new contents reads and modifies them directly, while
+ * other threads keep seeing the previous contents until they are published.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class CopyOnWriteLinkedMap<K, V> extends AbstractMap<K, V> {
+
+    private volatile Map<K, V> snapshot = Collections.emptyMap();
+    private volatile Thread stagingThread;
+    private Map<K, V> staged;
+
+    /**
+     * Starts staging new contents for this map, which are initially empty.
+     */
+    synchronized void beginStaging() {
+        staged = new LinkedHashMap<K, V>();
+        stagingThread = Thread.currentThread();
+    }
+
+    /**
+     * Stops staging new contents for this map.
+     *
+     * @param publish true to replace the contents of this map with the
+     *     staged contents, false to discard them
+     */
+    synchronized void endStaging(boolean publish) {
+        if (publish) {
+            snapshot = Collections.unmodifiableMap(staged);
+        }
+        staged = null;
+        stagingThread = null;
+    }
+
+    /**
+     * Gets the contents of this map as seen by the current thread.
+     */
+    @NotNull
+    private Map<K, V> current() {
+        Thread thread = stagingThread;
+        return (thread == Thread.currentThread()) ? staged : snapshot;
+    }
+
+    private boolean isStaging() {
+        return stagingThread == Thread.currentThread();
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return current().containsKey(key);
+    }
+
+    @Override
+    @Nullable
+    public V get(@Nullable Object key) {
+        return current().get(key);
+    }
+
+    @Override
+    @Nullable
+    public synchronized V put(K key, V value) {
+        if (isStaging()) {
+            return staged.put(key, value);
+        }
+
+        Map<K, V> copy = new LinkedHashMap<K, V>(snapshot);
+        V previous = copy.put(key, value);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    @Override
+    @Nullable
+    public synchronized V remove(@Nullable Object key) {
+        if (isStaging()) {
+            return staged.remove(key);
+        }
+
+        if (!snapshot.containsKey(key)) {
+            return null;
+        }
+
+        Map<K, V> copy = new LinkedHashMap<K, V>(snapshot);
+        V previous = copy.remove(key);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        if (isStaging()) {
+            staged.clear();
+            return;
+        }
+
+        snapshot = Collections.emptyMap();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned set is an unmodifiable view of the contents of this map
+     * at the time of the call, and does not reflect later modifications,
+     * except in the thread staging new contents, which sees the staged
+     * contents.
+     */
+    @Override
+    @NotNull
+    public Set<Entry<K, V>> entrySet() {
+        return current().entrySet();
+    }
+}
@@ -4,7 +4,12 @@ import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This is a {@link Configuration} implementation that does not save or load
@@ -14,6 +19,19 @@ import java.util.Map;
 public class MemoryConfiguration extends MemorySection implements Configuration {
     protected Configuration defaults;
     protected MemoryConfigurationOptions options;
+    /**
+     * Whether changes to this configuration are currently recorded. This is
+     * disabled while a configuration is being loaded, as loading does not
+     * make the configuration differ from its source.
+     */
+    protected boolean trackChanges = true;
+    private final Set<String> changes = new LinkedHashSet<String>();
+    private final List<ConfigurationChangeListener> listeners = new ArrayList<ConfigurationChangeListener>();
+    /**
+     * The write lock of this configuration, if it is a {@link
+     * ConcurrentConfiguration}.
+     */
+    final ConfigurationLock lock = (this instanceof ConcurrentConfiguration) ? new ConfigurationLock() : null;
 
     /**
      * Creates an empty {@link MemoryConfiguration} with no default values.
@@ -81,6 +99,110 @@ public class MemoryConfiguration extends MemorySection implements Configuration
         return null;
     }
 
+    /**
+     * Gets the full paths of all values and comments that have been changed
+     * since this configuration was last marked as clean, in the order they
+     * were first changed.
+     * <p>
+     * For a {@link ConcurrentConfiguration}, this is a copy of the changed
+     * paths instead of a view.
+     *
+     * @return Unmodifiable view of the changed paths
+     */
+    @NotNull
+    public Set<String> getChanges() {
+        if (lock == null) {
+            return Collections.unmodifiableSet(changes);
+        }
+
+        lock.lock();
+        try {
+            return Collections.unmodifiableSet(new LinkedHashSet<String>(changes));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks this configuration and all of its sections as clean, clearing
+     * the dirty flags and the recorded changes.
+     * <p>
+     * This is called automatically after a configuration has been loaded
+     * or saved to a file.
+     */
+    public void markClean() {
+        write(() -> {
+            clearDirty();
+            changes.clear();
+        });
+    }
+
+    /**
+     * Records the given paths as changed again, flagging their sections as
+     * dirty. This is used when saving the configuration failed after it
+     * was marked as clean.
+     *
+     * @param paths Full paths of the changed values and comments
+     */
+    protected final void restoreChanges(@NotNull Set<String> paths) {
+        Preconditions.checkArgument(paths != null, "Paths cannot be null");
+
+        write(() -> {
+            for (String path : paths) {
+                int index = path.lastIndexOf(options().pathSeparator());
+                ConfigurationSection section = (index == -1) ? this : getConfigurationSection(path.substring(0, index));
+                ((section instanceof MemorySection) ? (MemorySection) section : this).markDirty();
+                changes.add(path);
+            }
+        });
+    }
+
+    /**
+     * Registers a listener which will be notified of every value change in
+     * this configuration.
+     *
+     * @param listener Listener to add
+     */
+    public void addChangeListener(@NotNull ConfigurationChangeListener listener) {
+        Preconditions.checkArgument(listener != null, "Listener cannot be null");
+
+        write(() -> listeners.add(listener));
+    }
+
+    /**
+     * Unregisters a previously added change listener.
+     *
+     * @param listener Listener to remove
+     */
+    public void removeChangeListener(@NotNull ConfigurationChangeListener listener) {
+        Preconditions.checkArgument(listener != null, "Listener cannot be null");
+
+        write(() -> listeners.remove(listener));
+    }
+
+    void recordChange(@NotNull MemorySection section, @NotNull String key, @Nullable Object oldValue, @Nullable Object newValue) {
+        if (!trackChanges) {
+            return;
+        }
+
+        section.markDirty();
+        String path = createPath(section, key);
+        changes.add(path);
+
+        for (ConfigurationChangeListener listener : listeners) {
+            listener.onChange(this, path, oldValue, newValue);
+        }
+    }
+
+    void recordCommentChange(@NotNull MemorySection section, @NotNull String key) {
+        if (!trackChanges) {
+            return;
+        }
+
+        section.markDirty();
+        changes.add(createPath(section, key));
+    }
+
     @Override
     @NotNull
     public MemoryConfigurationOptions options() {
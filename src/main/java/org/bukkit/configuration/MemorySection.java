@@ -3,12 +3,17 @@ package org.bukkit.configuration;
 import static org.bukkit.util.NumberConversions.*;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -24,11 +29,12 @@ import org.jetbrains.annotations.Nullable;
  * A type of {@link ConfigurationSection} that is stored in memory.
  */
 public class MemorySection implements ConfigurationSection {
-    protected final Map<String, SectionPathData> map = new LinkedHashMap<String, SectionPathData>();
+    protected final Map<String, SectionPathData> map;
     private final Configuration root;
     private final ConfigurationSection parent;
     private final String path;
     private final String fullPath;
+    private volatile boolean dirty;
 
     /**
      * Creates an empty MemorySection for use as a root {@link Configuration}
@@ -49,6 +55,7 @@ public class MemorySection implements ConfigurationSection {
         this.fullPath = "";
         this.parent = null;
         this.root = (Configuration) this;
+        this.map = createMap(root);
     }
 
     /**
@@ -71,6 +78,15 @@ public class MemorySection implements ConfigurationSection {
         Preconditions.checkArgument(root != null, "Path cannot be orphaned");
 
         this.fullPath = createPath(parent, path);
+        this.map = createMap(root);
+    }
+
+    @NotNull
+    private static Map<String, SectionPathData> createMap(@NotNull Configuration root) {
+        if (root instanceof ConcurrentConfiguration) {
+            return new CopyOnWriteLinkedMap<String, SectionPathData>();
+        }
+        return new LinkedHashMap<String, SectionPathData>();
     }
 
     @Override
@@ -188,6 +204,15 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public void set(@NotNull String path, @Nullable Object value) {
+        ConfigurationLock lock = beginWrite();
+        try {
+            setValue(path, value);
+        } finally {
+            endWrite(lock);
+        }
+    }
+
+    private void setValue(@NotNull String path, @Nullable Object value) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(path), "Cannot set to an empty path");
 
         Configuration root = getRoot();
@@ -216,14 +241,23 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             if (value == null) {
-                map.remove(key);
+                SectionPathData entry = map.remove(key);
+                if (entry != null) {
+                    changed(key, entry.getData(), null);
+                }
             } else {
                 SectionPathData entry = map.get(key);
                 if (entry == null) {
                     map.put(key, new SectionPathData(value));
+                    changed(key, null, value);
                 } else {
+                    Object oldValue = entry.getData();
                     entry.setData(value);
+                    if (!isImmutable(value) || !Objects.equals(oldValue, value)) {
+                        changed(key, oldValue, value);
+                    }
                 }
             }
         } else {
@@ -270,6 +304,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             SectionPathData result = map.get(key);
             return (result == null) ? def : result.getData();
         }
@@ -279,6 +314,16 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public ConfigurationSection createSection(@NotNull String path) {
+        ConfigurationLock lock = beginWrite();
+        try {
+            return createSectionValue(path);
+        } finally {
+            endWrite(lock);
+        }
+    }
+
+    @NotNull
+    private ConfigurationSection createSectionValue(@NotNull String path) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(path), "Cannot create section at empty path");
         Configuration root = getRoot();
         if (root == null) {
@@ -302,8 +347,10 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             ConfigurationSection result = new MemorySection(this, key);
-            map.put(key, new SectionPathData(result));
+            SectionPathData entry = map.put(key, new SectionPathData(result));
+            changed(key, (entry == null) ? null : entry.getData(), result);
             return result;
         }
         return section.createSection(key);
@@ -312,17 +359,22 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public ConfigurationSection createSection(@NotNull String path, @NotNull Map<?, ?> map) {
-        ConfigurationSection section = createSection(path);
+        ConfigurationLock lock = beginWrite();
+        try {
+            ConfigurationSection section = createSection(path);
 
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            if (entry.getValue() instanceof Map) {
-                section.createSection(entry.getKey().toString(), (Map<?, ?>) entry.getValue());
-            } else {
-                section.set(entry.getKey().toString(), entry.getValue());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() instanceof Map) {
+                    section.createSection(entry.getKey().toString(), (Map<?, ?>) entry.getValue());
+                } else {
+                    section.set(entry.getKey().toString(), entry.getValue());
+                }
             }
-        }
 
-        return section;
+            return section;
+        } finally {
+            endWrite(lock);
+        }
     }
 
     // Primitives
@@ -432,19 +484,41 @@ public class MemorySection implements ConfigurationSection {
     @Nullable
     public List<?> getList(@NotNull String path, @Nullable List<?> def) {
         Object val = get(path, def);
-        return (List<?>) ((val instanceof List) ? val : def);
+        if (val instanceof List) {
+            return (List<?>) val;
+        }
+
+        // Arrays are copied so callers still get a List they can modify
+        List<?> list = asList(val);
+        return (list != null) ? new ArrayList<Object>(list) : def;
+    }
+
+    /**
+     * Gets the requested List by path like {@link #getList(String)}, but
+     * without copying arrays of int, long or double, for callers which only
+     * read the List.
+     *
+     * @param path Path of the List to get.
+     * @return Requested List, which must not be modified.
+     */
+    @Nullable
+    private List<?> getListView(@NotNull String path) {
+        Object def = getDefault(path);
+        List<?> defList = (def instanceof List) ? (List<?>) def : null;
+        List<?> list = asList(get(path, defList));
+        return (list != null) ? list : defList;
     }
 
     @Override
     public boolean isList(@NotNull String path) {
         Object val = get(path);
-        return val instanceof List;
+        return asList(val) != null;
     }
 
     @Override
     @NotNull
     public List<String> getStringList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<String>(0);
@@ -464,7 +538,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Integer> getIntegerList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Integer>(0);
@@ -493,7 +567,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Boolean> getBooleanList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Boolean>(0);
@@ -519,7 +593,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Double> getDoubleList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Double>(0);
@@ -548,7 +622,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Float> getFloatList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Float>(0);
@@ -577,7 +651,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Long> getLongList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Long>(0);
@@ -606,7 +680,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Byte> getByteList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Byte>(0);
@@ -635,7 +709,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Character> getCharacterList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Character>(0);
@@ -663,7 +737,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Short> getShortList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
 
         if (list == null) {
             return new ArrayList<Short>(0);
@@ -692,7 +766,7 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @NotNull
     public List<Map<?, ?>> getMapList(@NotNull String path) {
-        List<?> list = getList(path);
+        List<?> list = getListView(path);
         List<Map<?, ?>> result = new ArrayList<Map<?, ?>>();
 
         if (list == null) {
@@ -708,6 +782,114 @@ public class MemorySection implements ConfigurationSection {
         return result;
     }
 
+    @Override
+    @NotNull
+    public int[] getIntArray(@NotNull String path) {
+        Object val = get(path);
+        if (val instanceof int[]) {
+            return (int[]) val;
+        }
+
+        List<?> list = getListView(path);
+
+        if (list == null) {
+            return new int[0];
+        }
+
+        int[] result = new int[list.size()];
+        int size = 0;
+
+        for (Object object : list) {
+            if (object instanceof Integer) {
+                result[size++] = (Integer) object;
+            } else if (object instanceof String) {
+                try {
+                    int value = Integer.parseInt((String) object);
+                    result[size++] = value;
+                } catch (Exception ex) {
+                }
+            } else if (object instanceof Character) {
+                result[size++] = ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                result[size++] = ((Number) object).intValue();
+            }
+        }
+
+        return (size == result.length) ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    @NotNull
+    public long[] getLongArray(@NotNull String path) {
+        Object val = get(path);
+        if (val instanceof long[]) {
+            return (long[]) val;
+        }
+
+        List<?> list = getListView(path);
+
+        if (list == null) {
+            return new long[0];
+        }
+
+        long[] result = new long[list.size()];
+        int size = 0;
+
+        for (Object object : list) {
+            if (object instanceof Long) {
+                result[size++] = (Long) object;
+            } else if (object instanceof String) {
+                try {
+                    long value = Long.parseLong((String) object);
+                    result[size++] = value;
+                } catch (Exception ex) {
+                }
+            } else if (object instanceof Character) {
+                result[size++] = ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                result[size++] = ((Number) object).longValue();
+            }
+        }
+
+        return (size == result.length) ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    @NotNull
+    public double[] getDoubleArray(@NotNull String path) {
+        Object val = get(path);
+        if (val instanceof double[]) {
+            return (double[]) val;
+        }
+
+        List<?> list = getListView(path);
+
+        if (list == null) {
+            return new double[0];
+        }
+
+        double[] result = new double[list.size()];
+        int size = 0;
+
+        for (Object object : list) {
+            if (object instanceof Double) {
+                result[size++] = (Double) object;
+            } else if (object instanceof String) {
+                try {
+                    double value = Double.parseDouble((String) object);
+                    result[size++] = value;
+                } catch (Exception ex) {
+                }
+            } else if (object instanceof Character) {
+                result[size++] = ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                result[size++] = ((Number) object).doubleValue();
+            }
+        }
+
+        return (size == result.length) ? result : Arrays.copyOf(result, size);
+    }
+
     // Bukkit
     @Nullable
     @Override
@@ -847,6 +1029,27 @@ public class MemorySection implements ConfigurationSection {
         return val instanceof ConfigurationSection;
     }
 
+    /**
+     * Gets the given value as a List, wrapping arrays of int, long or double
+     * in a List which is backed by the array.
+     *
+     * @param value Value to get as a List
+     * @return The List, or null if the value is not a List
+     */
+    @Nullable
+    private static List<?> asList(@Nullable Object value) {
+        if (value instanceof List) {
+            return (List<?>) value;
+        } else if (value instanceof int[]) {
+            return Ints.asList((int[]) value);
+        } else if (value instanceof long[]) {
+            return Longs.asList((long[]) value);
+        } else if (value instanceof double[]) {
+            return Doubles.asList((double[]) value);
+        }
+        return null;
+    }
+
     protected boolean isPrimitiveWrapper(@Nullable Object input) {
         return input instanceof Integer || input instanceof Boolean
                 || input instanceof Character || input instanceof Byte
@@ -863,9 +1066,21 @@ public class MemorySection implements ConfigurationSection {
         return (defaults == null) ? null : defaults.get(createPath(this, path));
     }
 
+    /**
+     * Loads any content of this section that has been deferred until first
+     * access into {@link #map}.
+     * <p>
+     * This is called before the contents of this section are read or
+     * modified. The default implementation does nothing, as a plain
+     * MemorySection always holds all of its values.
+     */
+    protected void materialize() {
+    }
+
     protected void mapChildrenKeys(@NotNull Set<String> output, @NotNull ConfigurationSection section, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            sec.materialize();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
                 output.add(createPath(section, entry.getKey(), this));
@@ -887,6 +1102,7 @@ public class MemorySection implements ConfigurationSection {
     protected void mapChildrenValues(@NotNull Map<String, Object> output, @NotNull ConfigurationSection section, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            sec.materialize();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
                 // Because of the copyDefaults call potentially copying out of order, we must remove and then add in our saved order
@@ -983,17 +1199,173 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public void setComments(@NotNull final String path, @Nullable final List<String> comments) {
-        final SectionPathData pathData = getSectionPathData(path);
-        if (pathData != null) {
-            pathData.setComments(comments);
+        ConfigurationLock lock = beginWrite();
+        try {
+            final SectionPathData pathData = getSectionPathData(path);
+            if (pathData != null) {
+                pathData.setComments(comments);
+                commentsChanged(path);
+            }
+        } finally {
+            endWrite(lock);
         }
     }
 
     @Override
     public void setInlineComments(@NotNull final String path, @Nullable final List<String> comments) {
-        final SectionPathData pathData = getSectionPathData(path);
-        if (pathData != null) {
-            pathData.setInlineComments(comments);
+        ConfigurationLock lock = beginWrite();
+        try {
+            final SectionPathData pathData = getSectionPathData(path);
+            if (pathData != null) {
+                pathData.setInlineComments(comments);
+                commentsChanged(path);
+            }
+        } finally {
+            endWrite(lock);
+        }
+    }
+
+    /**
+     * Runs an action modifying this section as a single write.
+     * <p>
+     * If the root of this section is a {@link ConcurrentConfiguration}, no
+     * other thread can modify it while the action runs. Otherwise, the
+     * action is simply run.
+     *
+     * @param action Action modifying this section
+     */
+    protected final void write(@NotNull Runnable action) {
+        ConfigurationLock lock = beginWrite();
+        try {
+            action.run();
+        } finally {
+            endWrite(lock);
+        }
+    }
+
+    /**
+     * Replaces all values of this section with the values set by a loader,
+     * such as when the section is loaded from a file. Removing the previous
+     * values is not recorded as a change.
+     * <p>
+     * If the root of this section is a {@link ConcurrentConfiguration}, the
+     * replacement is a single write: other threads keep seeing the previous
+     * values until the loader has returned, and the previous values are kept
+     * if it throws an exception.
+     *
+     * @param loader Action setting the new values of this section
+     */
+    @SuppressWarnings("unchecked")
+    protected final void replaceContents(@NotNull Runnable loader) {
+        ConfigurationLock lock = beginWrite();
+        try {
+            if (map instanceof CopyOnWriteLinkedMap) {
+                CopyOnWriteLinkedMap<String, SectionPathData> values = (CopyOnWriteLinkedMap<String, SectionPathData>) map;
+                boolean loaded = false;
+                values.beginStaging();
+                try {
+                    loader.run();
+                    loaded = true;
+                } finally {
+                    values.endStaging(loaded);
+                }
+            } else {
+                map.clear();
+                loader.run();
+            }
+        } finally {
+            endWrite(lock);
+        }
+    }
+
+    /**
+     * Acquires the write lock of the root configuration if it is a {@link
+     * ConcurrentConfiguration}.
+     *
+     * @return the lock which must be passed to {@link
+     *     #endWrite(ConfigurationLock)}, or null if the root is not
+     *     concurrent
+     */
+    @Nullable
+    private ConfigurationLock beginWrite() {
+        ConfigurationLock lock = (root instanceof MemoryConfiguration) ? ((MemoryConfiguration) root).lock : null;
+        if (lock != null) {
+            lock.beginWrite();
+        }
+        return lock;
+    }
+
+    private void endWrite(@Nullable ConfigurationLock lock) {
+        if (lock != null) {
+            lock.endWrite();
+        }
+    }
+
+    /**
+     * Gets whether this section, or any section below it, has been modified
+     * since its {@link MemoryConfiguration} was last marked as clean.
+     *
+     * @return true if there are unsaved modifications in this section
+     * @see MemoryConfiguration#markClean()
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Checks whether a value cannot be modified after it was set. Setting
+     * a mutable value is always a change, even when it is equal to the
+     * current value, as it may be the current value which was modified in
+     * place.
+     */
+    private static boolean isImmutable(@NotNull Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof Enum
+                || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float
+                || value instanceof Short || value instanceof Byte;
+    }
+
+    private void changed(@NotNull String key, @Nullable Object oldValue, @Nullable Object newValue) {
+        if (root instanceof MemoryConfiguration) {
+            ((MemoryConfiguration) root).recordChange(this, key, oldValue, newValue);
+        }
+    }
+
+    private void commentsChanged(@NotNull String path) {
+        if (root instanceof MemoryConfiguration) {
+            int index = path.lastIndexOf(root.options().pathSeparator());
+            ConfigurationSection section = (index == -1) ? this : getConfigurationSection(path.substring(0, index));
+            if (section instanceof MemorySection) {
+                ((MemoryConfiguration) root).recordCommentChange((MemorySection) section, path.substring(index + 1));
+            }
+        }
+    }
+
+    /**
+     * Flags this section and all of its parents as dirty.
+     */
+    void markDirty() {
+        for (ConfigurationSection section = this; section instanceof MemorySection; section = section.getParent()) {
+            MemorySection sec = (MemorySection) section;
+            if (sec.dirty) {
+                break;
+            }
+            sec.dirty = true;
+        }
+    }
+
+    /**
+     * Clears the dirty flag of this section and all dirty sections below it.
+     */
+    void clearDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        for (SectionPathData entry : map.values()) {
+            if (entry.getData() instanceof MemorySection) {
+                ((MemorySection) entry.getData()).clearDirty();
+            }
         }
     }
 
@@ -1020,6 +1392,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             SectionPathData entry = map.get(key);
             if (entry != null) {
                 return entry;
@@ -7,9 +7,9 @@ import org.jetbrains.annotations.Nullable;
 
 final class SectionPathData {
 
-    private Object data;
-    private List<String> comments;
-    private List<String> inlineComments;
+    private volatile Object data;
+    private volatile List<String> comments;
+    private volatile List<String> inlineComments;
 
     public SectionPathData(@Nullable Object data) {
         this.data = data;
@@ -0,0 +1,80 @@
+package org.bukkit.configuration.file;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConcurrentConfiguration;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link YamlConfiguration} which may be safely read and modified from
+ * multiple threads at once, such as a plugin configuration which is read
+ * by asynchronous tasks while the main thread reloads it.
+ * <p>
+ * Loading replaces all values at once: other threads keep seeing the
+ * previous values until the new ones have been loaded, and if loading
+ * fails, the previous values are kept. Loading, saving and lazily loading
+ * sections all hold the write lock, as the YAML parser and emitter cannot
+ * be used by several threads at once.
+ *
+ * @see ConcurrentConfiguration
+ */
+public class ConcurrentYamlConfiguration extends YamlConfiguration implements ConcurrentConfiguration {
+
+    @NotNull
+    @Override
+    public String saveToString() {
+        String[] result = new String[1];
+        write(() -> result[0] = super.saveToString());
+        return result[0];
+    }
+
+    @Override
+    public void loadFromString(@NotNull String contents) throws InvalidConfigurationException {
+        InvalidConfigurationException[] error = new InvalidConfigurationException[1];
+        write(() -> {
+            try {
+                super.loadFromString(contents);
+            } catch (InvalidConfigurationException ex) {
+                error[0] = ex;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    /**
+     * Creates a new {@link ConcurrentYamlConfiguration}, loading from the
+     * given file.
+     * <p>
+     * Any errors loading the Configuration will be logged and then ignored.
+     * If the specified input is not a valid config, a blank config will be
+     * returned.
+     *
+     * @param file Input file
+     * @return Resulting configuration
+     * @throws IllegalArgumentException Thrown if file is null
+     */
+    @NotNull
+    public static ConcurrentYamlConfiguration loadConfiguration(@NotNull File file) {
+        Preconditions.checkArgument(file != null, "File cannot be null");
+
+        ConcurrentYamlConfiguration config = new ConcurrentYamlConfiguration();
+
+        try {
+            config.load(file);
+        } catch (FileNotFoundException ex) {
+        } catch (IOException ex) {
+            Bukkit.getLogger().log(Level.SEVERE, "Cannot load " + file, ex);
+        } catch (InvalidConfigurationException ex) {
+            Bukkit.getLogger().log(Level.SEVERE, "Cannot load " + file, ex);
+        }
+
+        return config;
+    }
+}
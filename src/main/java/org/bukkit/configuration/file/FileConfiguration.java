@@ -13,6 +13,8 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.MemoryConfiguration;
@@ -62,15 +64,57 @@ public abstract class FileConfiguration extends MemoryConfiguration {
 
         Files.createParentDirs(file);
 
-        String data = saveToString();
-
-        Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8);
+        // Saving and clearing the changes is a single write, so a change made
+        // meanwhile is neither missing from the file nor marked as saved
+        final String[] data = new String[1];
+        final Set<String> saved = new LinkedHashSet<String>();
+        write(() -> {
+            data[0] = saveToString();
+            saved.addAll(getChanges());
+            markClean();
+        });
 
+        boolean written = false;
         try {
-            writer.write(data);
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8);
+
+            try {
+                writer.write(data[0]);
+            } finally {
+                writer.close();
+            }
+            written = true;
         } finally {
-            writer.close();
+            if (!written) {
+                restoreChanges(saved);
+            }
+        }
+    }
+
+    /**
+     * Saves this {@link FileConfiguration} to the specified location, only
+     * if it has been changed since it was last loaded or saved, or if the
+     * file does not exist yet.
+     * <p>
+     * Changes to the {@link #options()} of this configuration, such as the
+     * header, are not tracked and will not cause the file to be written.
+     *
+     * @param file File to save to.
+     * @return true if the file was written, false if nothing changed
+     * @throws IOException Thrown when the given file cannot be written to for
+     *     any reason.
+     * @throws IllegalArgumentException Thrown when file is null.
+     * @see #isDirty()
+     */
+    public boolean saveIfChanged(@NotNull File file) throws IOException {
+        Preconditions.checkArgument(file != null, "File cannot be null");
+
+        if (!isDirty() && file.exists()) {
+            return false;
         }
+
+        save(file);
+        return true;
     }
 
     /**
@@ -17,6 +17,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemorySection;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.jetbrains.annotations.NotNull;
 import org.yaml.snakeyaml.DumperOptions;
@@ -98,7 +99,7 @@ public class YamlConfiguration extends FileConfiguration {
         Preconditions.checkArgument(contents != null, "Contents cannot be null");
         yamlLoaderOptions.setProcessComments(options().parseComments());
 
-        MappingNode node;
+        final MappingNode node;
         try (Reader reader = new UnicodeReader(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)))) {
             Node rawNode = yaml.compose(reader);
             try {
@@ -110,14 +111,23 @@ public class YamlConfiguration extends FileConfiguration {
             throw new InvalidConfigurationException(e);
         }
 
-        this.map.clear();
-
-        if (node != null) {
-            adjustNodeComments(node);
-            options().setHeader(loadHeader(getCommentLines(node.getBlockComments())));
-            options().setFooter(getCommentLines(node.getEndComments()));
-            fromNodeTree(node, this);
-        }
+        write(() -> {
+            boolean track = trackChanges;
+            trackChanges = false;
+            try {
+                replaceContents(() -> {
+                    if (node != null) {
+                        adjustNodeComments(node);
+                        options().setHeader(loadHeader(getCommentLines(node.getBlockComments())));
+                        options().setFooter(getCommentLines(node.getEndComments()));
+                        fromNodeTree(node, this);
+                    }
+                });
+            } finally {
+                trackChanges = track;
+            }
+            markClean();
+        });
     }
 
     /**
@@ -157,9 +167,17 @@ public class YamlConfiguration extends FileConfiguration {
             }
 
             if (value instanceof MappingNode && !hasSerializedTypeKey((MappingNode) value)) {
-                fromNodeTree((MappingNode) value, section.createSection(keyString));
+                if (options().lazySections()) {
+                    section.set(keyString, new LazySection(section, keyString, (MappingNode) value));
+                } else {
+                    fromNodeTree((MappingNode) value, section.createSection(keyString));
+                }
             } else {
-                section.set(keyString, constructor.construct(value));
+                Object object = constructor.construct(value);
+                if (options().primitiveArrays() && object instanceof List) {
+                    object = toPrimitiveArray((List<?>) object);
+                }
+                section.set(keyString, object);
             }
 
             section.setComments(keyString, getCommentLines(key.getBlockComments()));
@@ -171,6 +189,93 @@ public class YamlConfiguration extends FileConfiguration {
         }
     }
 
+    /**
+     * A section which keeps the node it was parsed from and only converts it
+     * into values once its contents are first accessed.
+     */
+    private final class LazySection extends MemorySection {
+        private volatile MappingNode node;
+        private boolean loading;
+
+        private LazySection(@NotNull ConfigurationSection parent, @NotNull String path, @NotNull MappingNode node) {
+            super(parent, path);
+            this.node = node;
+        }
+
+        @Override
+        protected void materialize() {
+            if (node == null) {
+                return;
+            }
+
+            // Other threads wait for the values, while the loading thread
+            // already reads the values it is setting
+            write(() -> {
+                MappingNode input = node;
+                if (input == null || loading) {
+                    return;
+                }
+
+                boolean track = trackChanges;
+                trackChanges = false;
+                loading = true;
+                try {
+                    replaceContents(() -> fromNodeTree(input, this));
+                    node = null;
+                } finally {
+                    loading = false;
+                    trackChanges = track;
+                }
+            });
+        }
+    }
+
+    /**
+     * Converts a list which only contains integers, longs or doubles into an
+     * array of the matching primitive type.
+     *
+     * @param list List to convert
+     * @return The converted array, or the list itself if it cannot be
+     *     converted
+     */
+    @NotNull
+    private static Object toPrimitiveArray(@NotNull List<?> list) {
+        if (list.isEmpty()) {
+            return list;
+        }
+
+        boolean ints = true;
+        boolean longs = true;
+        boolean doubles = true;
+        for (Object object : list) {
+            ints &= object instanceof Integer;
+            longs &= object instanceof Integer || object instanceof Long;
+            doubles &= object instanceof Double;
+        }
+
+        int size = list.size();
+        if (ints) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (Integer) list.get(i);
+            }
+            return array;
+        } else if (longs) {
+            long[] array = new long[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = ((Number) list.get(i)).longValue();
+            }
+            return array;
+        } else if (doubles) {
+            double[] array = new double[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (Double) list.get(i);
+            }
+            return array;
+        }
+        return list;
+    }
+
     private boolean hasSerializedTypeKey(MappingNode node) {
         for (NodeTuple nodeTuple : node.getValue()) {
             Node keyNode = nodeTuple.getKeyNode();
@@ -12,6 +12,8 @@ import org.jetbrains.annotations.Nullable;
 public class YamlConfigurationOptions extends FileConfigurationOptions {
     private int indent = 2;
     private int width = 80;
+    private boolean lazySections = false;
+    private boolean primitiveArrays = false;
 
     protected YamlConfigurationOptions(@NotNull YamlConfiguration configuration) {
         super(configuration);
@@ -122,4 +124,87 @@ public class YamlConfigurationOptions extends FileConfigurationOptions {
         this.width = value;
         return this;
     }
+
+    /**
+     * Gets whether nested sections are converted lazily when loading.
+     * <p>
+     * If this is true, each nested section keeps its parsed yaml nodes and
+     * only converts them into values the first time the section is
+     * accessed, so that load time and memory usage depend on which sections
+     * are actually read. Errors in the contents of a nested section, such as
+     * an object that cannot be deserialized, are then only reported when
+     * that section is first accessed.
+     * <p>
+     * Defaults to false.
+     *
+     * @return Whether nested sections are loaded lazily
+     */
+    public boolean lazySections() {
+        return lazySections;
+    }
+
+    /**
+     * Sets whether nested sections are converted lazily when loading.
+     * <p>
+     * If this is true, each nested section keeps its parsed yaml nodes and
+     * only converts them into values the first time the section is
+     * accessed, so that load time and memory usage depend on which sections
+     * are actually read. Errors in the contents of a nested section, such as
+     * an object that cannot be deserialized, are then only reported when
+     * that section is first accessed.
+     * <p>
+     * Defaults to false.
+     *
+     * @param value Whether nested sections should be loaded lazily
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions lazySections(boolean value) {
+        this.lazySections = value;
+        return this;
+    }
+
+    /**
+     * Gets whether lists of numbers are stored as primitive arrays when
+     * loading.
+     * <p>
+     * If this is true, every list which only contains integers, longs or
+     * doubles is stored as an int, long or double array, which avoids
+     * boxing each element and lets {@link
+     * org.bukkit.configuration.ConfigurationSection#getIntArray(String)} and
+     * similar methods return it without any conversion. Such values are
+     * still returned as fixed size lists by {@link
+     * org.bukkit.configuration.ConfigurationSection#getList(String)}.
+     * <p>
+     * Defaults to false.
+     *
+     * @return Whether lists of numbers are loaded as primitive arrays
+     */
+    public boolean primitiveArrays() {
+        return primitiveArrays;
+    }
+
+    /**
+     * Sets whether lists of numbers are stored as primitive arrays when
+     * loading.
+     * <p>
+     * If this is true, every list which only contains integers, longs or
+     * doubles is stored as an int, long or double array, which avoids
+     * boxing each element and lets {@link
+     * org.bukkit.configuration.ConfigurationSection#getIntArray(String)} and
+     * similar methods return it without any conversion. Such values are
+     * still returned as fixed size lists by {@link
+     * org.bukkit.configuration.ConfigurationSection#getList(String)}.
+     * <p>
+     * Defaults to false.
+     *
+     * @param value Whether lists of numbers should be loaded as primitive
+     *     arrays
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions primitiveArrays(boolean value) {
+        this.primitiveArrays = value;
+        return this;
+    }
 }
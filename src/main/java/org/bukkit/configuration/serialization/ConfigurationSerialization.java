@@ -30,7 +30,17 @@ import org.jetbrains.annotations.Nullable;
 public class ConfigurationSerialization {
     public static final String SERIALIZED_TYPE_KEY = "==";
     private final Class<? extends ConfigurationSerializable> clazz;
+    private volatile boolean resolved;
+    private Method deserializeMethod;
+    private Method valueOfMethod;
+    private Constructor<? extends ConfigurationSerializable> constructor;
     private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new HashMap<String, Class<? extends ConfigurationSerializable>>();
+    private static final ClassValue<ConfigurationSerialization> serializers = new ClassValue<ConfigurationSerialization>() {
+        @Override
+        protected ConfigurationSerialization computeValue(Class<?> type) {
+            return new ConfigurationSerialization(type.asSubclass(ConfigurationSerializable.class));
+        }
+    };
 
     static {
         registerClass(Vector.class);
@@ -115,35 +125,37 @@ public class ConfigurationSerialization {
         return null;
     }
 
+    /**
+     * Looks up the deserialization methods and constructor of the class once,
+     * so that repeated calls to {@link #deserialize(Map)} do not have to go
+     * through reflection again.
+     */
+    private void resolve() {
+        if (!resolved) {
+            deserializeMethod = getMethod("deserialize", true);
+            valueOfMethod = getMethod("valueOf", true);
+            constructor = getConstructor();
+            resolved = true;
+        }
+    }
+
     @Nullable
     public ConfigurationSerializable deserialize(@NotNull Map<String, ?> args) {
         Preconditions.checkArgument(args != null, "Args must not be null");
 
+        resolve();
         ConfigurationSerializable result = null;
-        Method method = null;
-
-        if (result == null) {
-            method = getMethod("deserialize", true);
 
-            if (method != null) {
-                result = deserializeViaMethod(method, args);
-            }
+        if (deserializeMethod != null) {
+            result = deserializeViaMethod(deserializeMethod, args);
         }
 
-        if (result == null) {
-            method = getMethod("valueOf", true);
-
-            if (method != null) {
-                result = deserializeViaMethod(method, args);
-            }
+        if (result == null && valueOfMethod != null) {
+            result = deserializeViaMethod(valueOfMethod, args);
         }
 
-        if (result == null) {
-            Constructor<? extends ConfigurationSerializable> constructor = getConstructor();
-
-            if (constructor != null) {
-                result = deserializeViaCtor(constructor, args);
-            }
+        if (result == null && constructor != null) {
+            result = deserializeViaCtor(constructor, args);
         }
 
         return result;
@@ -166,7 +178,7 @@ public class ConfigurationSerialization {
      */
     @Nullable
     public static ConfigurationSerializable deserializeObject(@NotNull Map<String, ?> args, @NotNull Class<? extends ConfigurationSerializable> clazz) {
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return serializers.get(clazz).deserialize(args);
     }
 
     /**
@@ -206,7 +218,7 @@ public class ConfigurationSerialization {
             throw new IllegalArgumentException("Args doesn't contain type key ('" + SERIALIZED_TYPE_KEY + "')");
         }
 
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return serializers.get(clazz).deserialize(args);
     }
 
     /**
@@ -242,7 +254,11 @@ public class ConfigurationSerialization {
      * @param alias Alias to unregister
      */
     public static void unregisterClass(@NotNull String alias) {
-        aliases.remove(alias);
+        Class<? extends ConfigurationSerializable> clazz = aliases.remove(alias);
+
+        if (clazz != null) {
+            serializers.remove(clazz);
+        }
     }
 
     /**
@@ -255,6 +271,7 @@ public class ConfigurationSerialization {
         while (aliases.values().remove(clazz)) {
             ;
         }
+        serializers.remove(clazz);
     }
 
     /**
@@ -6,6 +6,7 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Lacking an alternative, the help system will create instances of
@@ -14,6 +15,18 @@ import org.jetbrains.annotations.NotNull;
  * for how to write your own.
  */
 public class GenericCommandHelpTopic extends HelpTopic {
+    private static final ClassValue<Boolean> OVERRIDES_CAN_SEE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, GenericCommandHelpTopic.class, "canSee", CommandSender.class);
+        }
+    };
+    private static final ClassValue<Boolean> OVERRIDES_TEST_PERMISSION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, Command.class, "testPermissionSilent", CommandSender.class);
+        }
+    };
 
     protected Command command;
 
@@ -76,4 +89,20 @@ public class GenericCommandHelpTopic extends HelpTopic {
             return command.testPermissionSilent(sender);
         }
     }
+
+    @Override
+    @Nullable
+    Object getVisibilityState() {
+        if (OVERRIDES_CAN_SEE.get(getClass()) || !command.isRegistered()) {
+            return null;
+        }
+        if (amendedPermission != null) {
+            return amendedPermission;
+        }
+        if (OVERRIDES_TEST_PERMISSION.get(command.getClass())) {
+            return null;
+        }
+        String permission = command.getPermission();
+        return (permission == null) ? NO_PERMISSION : permission;
+    }
 }
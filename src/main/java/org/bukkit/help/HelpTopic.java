@@ -2,6 +2,7 @@ package org.bukkit.help;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.util.ChatPaginator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,6 +19,12 @@ import org.jetbrains.annotations.Nullable;
  * the methods in this class.
  */
 public abstract class HelpTopic {
+    /**
+     * Visibility state of topics which every sender can see, apart from
+     * their permissions.
+     */
+    static final Object NO_PERMISSION = new Object();
+
     protected String name = "";
     protected String shortText = "";
     protected String fullText = "";
@@ -49,6 +56,22 @@ public abstract class HelpTopic {
         this.amendedPermission = amendedPermission;
     }
 
+    /**
+     * Gets the state of this topic which its visibility depends on, if it
+     * is otherwise only decided by the permissions of the sender.
+     * <p>
+     * Indexes remember which of these topics a sender can see until either
+     * this state or the permissions of the sender change, while they check
+     * the visibility of other topics every time.
+     *
+     * @return the state, or null if the visibility may depend on anything
+     *     else
+     */
+    @Nullable
+    Object getVisibilityState() {
+        return null;
+    }
+
     /**
      * Returns the name of this help topic.
      *
@@ -86,6 +109,24 @@ public abstract class HelpTopic {
         return fullText;
     }
 
+    /**
+     * Returns a page of the full text of this help topic, word wrapped to
+     * fit the user's client.
+     * <p>
+     * Implementations may override this method to reuse the pages already
+     * wrapped for other users seeing the same text.
+     *
+     * @param forWho The player or console requesting the page.
+     * @param pageNumber The page number to fetch.
+     * @param lineLength The width of a line of the page.
+     * @param pageHeight The number of lines in a page.
+     * @return A single page of the full topic description.
+     */
+    @NotNull
+    public ChatPaginator.ChatPage getPage(@NotNull CommandSender forWho, int pageNumber, int lineLength, int pageHeight) {
+        return ChatPaginator.paginate(getFullText(forWho), pageNumber, lineLength, pageHeight);
+    }
+
     /**
      * Allows the server admin (or another plugin) to add or replace the
      * contents of a help topic.
@@ -116,6 +157,22 @@ public abstract class HelpTopic {
      * @return The application of the amending text to the existing text,
      *     according to the expected rules of amendTopic().
      */
+    /**
+     * Checks whether the given class or one of its superclasses below the
+     * given base class declares the given method.
+     */
+    static boolean overrides(@NotNull Class<?> type, @NotNull Class<?> base, @NotNull String name, @NotNull Class<?>... parameterTypes) {
+        for (Class<?> clazz = type; clazz != base; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException ex) {
+                // Not declared by this class
+            }
+        }
+        return false;
+    }
+
     @NotNull
     protected String applyAmendment(@NotNull String baseText, @Nullable String amendment) {
         if (amendment == null) {
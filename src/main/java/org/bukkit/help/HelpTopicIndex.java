@@ -0,0 +1,141 @@
+package org.bukkit.help;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import org.bukkit.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A snapshot of a collection of help topics, sorted by name for searching
+ * the topics by prefix.
+ * <p>
+ * Topic names are searched without their leading slash and ignoring case,
+ * so finding the topics starting with a prefix is a binary search instead
+ * of going through every topic. Whether the snapshot is still up to date
+ * with the collection can be checked with {@link #isIndexOf(Collection)}.
+ */
+public final class HelpTopicIndex {
+    private final HelpTopic[] topics;
+    private final HelpTopic[] sortedTopics;
+    private final String[] sortedNames;
+
+    private HelpTopicIndex(@NotNull HelpTopic[] topics) {
+        HelpTopic[] sorted = topics.clone();
+        Arrays.sort(sorted, Comparator.comparing(HelpTopicIndex::trimName, String.CASE_INSENSITIVE_ORDER));
+
+        this.topics = topics;
+        this.sortedTopics = sorted;
+        this.sortedNames = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sortedNames[i] = trimName(sorted[i]);
+        }
+    }
+
+    /**
+     * Creates an index of the given topics.
+     *
+     * @param topics the topics to index
+     * @return the index
+     */
+    @NotNull
+    public static HelpTopicIndex of(@NotNull Collection<? extends HelpTopic> topics) {
+        Preconditions.checkArgument(topics != null, "Topics cannot be null");
+
+        return new HelpTopicIndex(topics.toArray(new HelpTopic[topics.size()]));
+    }
+
+    /**
+     * Checks whether this index holds exactly the given topics, in the same
+     * order, which is the case if the collection did not change since the
+     * index was created from it.
+     *
+     * @param topics the topics to compare to
+     * @return true if this index is up to date with the topics
+     */
+    public boolean isIndexOf(@NotNull Collection<? extends HelpTopic> topics) {
+        Preconditions.checkArgument(topics != null, "Topics cannot be null");
+
+        if (topics.size() != this.topics.length) {
+            return false;
+        }
+        Iterator<? extends HelpTopic> iterator = topics.iterator();
+        for (HelpTopic topic : this.topics) {
+            if (!iterator.hasNext() || iterator.next() != topic) {
+                return false;
+            }
+        }
+        return !iterator.hasNext();
+    }
+
+    /**
+     * Gets the topics whose name, without a leading slash, starts with the
+     * given prefix ignoring case.
+     *
+     * @param prefix the prefix to search for
+     * @return unmodifiable list of the matching topics, sorted by name
+     *     ignoring case
+     */
+    @NotNull
+    public List<HelpTopic> getTopics(@NotNull String prefix) {
+        Preconditions.checkArgument(prefix != null, "Prefix cannot be null");
+
+        int from = lowerBound(prefix);
+        return Collections.unmodifiableList(Arrays.asList(sortedTopics).subList(from, upperBound(prefix, from)));
+    }
+
+    /**
+     * Gets the names, without a leading slash, of the topics returned by
+     * {@link #getTopics(String)} for the given prefix.
+     *
+     * @param prefix the prefix to search for
+     * @return unmodifiable list of the matching names, in the same order as
+     *     the topics
+     */
+    @NotNull
+    public List<String> getNames(@NotNull String prefix) {
+        Preconditions.checkArgument(prefix != null, "Prefix cannot be null");
+
+        int from = lowerBound(prefix);
+        return Collections.unmodifiableList(Arrays.asList(sortedNames).subList(from, upperBound(prefix, from)));
+    }
+
+    /**
+     * Finds the index of the first name which is not before the prefix.
+     */
+    private int lowerBound(@NotNull String prefix) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(sortedNames[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the index after the last name starting with the prefix, the
+     * matching names being contiguous from the lower bound.
+     */
+    private int upperBound(@NotNull String prefix, int from) {
+        int to = from;
+        while (to < sortedNames.length && StringUtil.startsWithIgnoreCase(sortedNames[to], prefix)) {
+            to++;
+        }
+        return to;
+    }
+
+    @NotNull
+    private static String trimName(@NotNull HelpTopic topic) {
+        String name = topic.getName();
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+}
@@ -1,6 +1,13 @@
 package org.bukkit.help;
 
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
@@ -16,12 +23,41 @@ import org.jetbrains.annotations.Nullable;
  * <p>
  * If a preamble is provided to the constructor, that text will be displayed
  * before the first item in the index.
+ * <p>
+ * The index lines are rendered once, and the full text and its pages are
+ * reused for all senders which can see the same topics, until the topics
+ * change. This is not done for subclasses changing how the index is
+ * rendered, as their rendering may depend on the sender.
+ * <p>
+ * Which topics a sender can see is remembered while the permissions of the
+ * sender stay the same, for topics whose visibility only depends on those
+ * permissions. The visibility of other topics is checked every time.
  */
 public class IndexHelpTopic extends HelpTopic {
+    /**
+     * Maximum number of distinct sets of visible topics to keep the full
+     * text of, and of line lengths to keep the wrapped lines of.
+     */
+    private static final int MAX_CACHED_RENDERINGS = 64;
+    private static final ClassValue<Boolean> CACHEABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !overrides(type, IndexHelpTopic.class, "getFullText", CommandSender.class)
+                    && !overrides(type, IndexHelpTopic.class, "buildPreamble", CommandSender.class)
+                    && !overrides(type, IndexHelpTopic.class, "buildIndexLine", CommandSender.class, HelpTopic.class);
+        }
+    };
+    private static final ClassValue<Boolean> OVERRIDES_CAN_SEE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, IndexHelpTopic.class, "canSee", CommandSender.class);
+        }
+    };
 
     protected String permission;
     protected String preamble;
     protected Collection<HelpTopic> allTopics;
+    private volatile RenderedIndex rendered;
 
     public IndexHelpTopic(@NotNull String name, @Nullable String shortText, @Nullable String permission, @NotNull Collection<HelpTopic> topics) {
         this(name, shortText, permission, topics, null);
@@ -60,9 +96,47 @@ public class IndexHelpTopic extends HelpTopic {
         permission = amendedPermission;
     }
 
+    @Override
+    @Nullable
+    Object getVisibilityState() {
+        if (OVERRIDES_CAN_SEE.get(getClass())) {
+            return null;
+        }
+        return (permission == null) ? NO_PERMISSION : permission;
+    }
+
     @Override
     @NotNull
     public String getFullText(@NotNull CommandSender sender) {
+        if (!CACHEABLE.get(getClass())) {
+            return renderFullText(sender);
+        }
+        RenderedIndex index = getRenderedIndex(sender);
+        return index.getRendering(sender).getFullText(index);
+    }
+
+    @Override
+    @NotNull
+    public ChatPaginator.ChatPage getPage(@NotNull CommandSender forWho, int pageNumber, int lineLength, int pageHeight) {
+        if (!CACHEABLE.get(getClass())) {
+            return super.getPage(forWho, pageNumber, lineLength, pageHeight);
+        }
+        RenderedIndex index = getRenderedIndex(forWho);
+        return ChatPaginator.paginate(index.getRendering(forWho).getLines(index, lineLength), pageNumber, pageHeight);
+    }
+
+    @NotNull
+    private RenderedIndex getRenderedIndex(@NotNull CommandSender sender) {
+        RenderedIndex index = rendered;
+        if (index == null || !index.isRenderingOf(this)) {
+            index = new RenderedIndex(this, sender);
+            rendered = index;
+        }
+        return index;
+    }
+
+    @NotNull
+    private String renderFullText(@NotNull CommandSender sender) {
         StringBuilder sb = new StringBuilder();
 
         if (preamble != null) {
@@ -115,4 +189,225 @@ public class IndexHelpTopic extends HelpTopic {
         line.append(topic.getShortText());
         return line.toString();
     }
+
+    /**
+     * The index lines of the topics of an index, and the renderings of the
+     * index for every set of visible topics.
+     */
+    private static final class RenderedIndex {
+        private final String preamble;
+        private final String renderedPreamble;
+        private final HelpTopic[] topics;
+        private final String[] names;
+        private final String[] shortTexts;
+        private final String[] lines;
+        private final Object[] visibilityStates;
+        private final int[] otherTopics;
+        private final Map<Fingerprint, Rendering> renderings = new ConcurrentHashMap<Fingerprint, Rendering>();
+        private final Map<CommandSender, PermittedTopics> permitted = Collections.synchronizedMap(new WeakHashMap<CommandSender, PermittedTopics>());
+
+        private RenderedIndex(@NotNull IndexHelpTopic index, @NotNull CommandSender sender) {
+            this.preamble = index.preamble;
+            this.renderedPreamble = (preamble == null) ? null : index.buildPreamble(sender);
+            this.topics = index.allTopics.toArray(new HelpTopic[index.allTopics.size()]);
+            this.names = new String[topics.length];
+            this.shortTexts = new String[topics.length];
+            this.lines = new String[topics.length];
+            this.visibilityStates = new Object[topics.length];
+            int others = 0;
+            for (int i = 0; i < topics.length; i++) {
+                names[i] = topics[i].getName();
+                shortTexts[i] = topics[i].getShortText();
+                lines[i] = index.buildIndexLine(sender, topics[i]).replace("\n", ". ");
+                visibilityStates[i] = topics[i].getVisibilityState();
+                if (visibilityStates[i] == null) {
+                    others++;
+                }
+            }
+
+            this.otherTopics = new int[others];
+            for (int i = 0, j = 0; i < topics.length; i++) {
+                if (visibilityStates[i] == null) {
+                    otherTopics[j++] = i;
+                }
+            }
+        }
+
+        /**
+         * Checks whether the index still has the same preamble and topics,
+         * with the same names, short texts and visibility states, as when it
+         * was rendered.
+         */
+        private boolean isRenderingOf(@NotNull IndexHelpTopic index) {
+            if (index.preamble != preamble || index.allTopics.size() != topics.length) {
+                return false;
+            }
+            Iterator<HelpTopic> iterator = index.allTopics.iterator();
+            for (int i = 0; i < topics.length; i++) {
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                HelpTopic topic = iterator.next();
+                if (topic != topics[i] || topic.getName() != names[i] || topic.getShortText() != shortTexts[i]
+                        || !Objects.equals(topic.getVisibilityState(), visibilityStates[i])) {
+                    return false;
+                }
+            }
+            return !iterator.hasNext();
+        }
+
+        @NotNull
+        private Rendering getRendering(@NotNull CommandSender sender) {
+            BitSet visible;
+            long version = sender.getPermissionsVersion();
+            if (version == -1L) {
+                visible = new BitSet(topics.length);
+                for (int i = 0; i < topics.length; i++) {
+                    if (topics[i].canSee(sender)) {
+                        visible.set(i);
+                    }
+                }
+            } else {
+                visible = getPermittedTopics(sender, version);
+                if (otherTopics.length > 0) {
+                    visible = (BitSet) visible.clone();
+                    for (int i : otherTopics) {
+                        if (topics[i].canSee(sender)) {
+                            visible.set(i);
+                        }
+                    }
+                }
+            }
+
+            Fingerprint fingerprint = new Fingerprint(visible, sender instanceof Player);
+            Rendering rendering = renderings.get(fingerprint);
+            if (rendering == null) {
+                if (renderings.size() >= MAX_CACHED_RENDERINGS) {
+                    renderings.clear();
+                }
+                rendering = renderings.computeIfAbsent(fingerprint, Rendering::new);
+            }
+            return rendering;
+        }
+
+        /**
+         * Gets the topics whose visibility only depends on the permissions of
+         * the sender, and which the sender can see with the given version of
+         * its permissions.
+         */
+        @NotNull
+        private BitSet getPermittedTopics(@NotNull CommandSender sender, long version) {
+            boolean op = sender.isOp();
+            PermittedTopics cached = permitted.get(sender);
+            if (cached != null && cached.version == version && cached.op == op) {
+                return cached.visible;
+            }
+
+            BitSet visible = new BitSet(topics.length);
+            for (int i = 0; i < topics.length; i++) {
+                if (visibilityStates[i] != null && topics[i].canSee(sender)) {
+                    visible.set(i);
+                }
+            }
+            permitted.put(sender, new PermittedTopics(version, op, visible));
+            return visible;
+        }
+    }
+
+    /**
+     * The topics a sender can see for a version of its permissions.
+     */
+    private static final class PermittedTopics {
+        private final long version;
+        private final boolean op;
+        private final BitSet visible;
+
+        private PermittedTopics(long version, boolean op, @NotNull BitSet visible) {
+            this.version = version;
+            this.op = op;
+            this.visible = visible;
+        }
+    }
+
+    /**
+     * The topics visible to a sender, and whether the lines are truncated
+     * to fit the chat of a player.
+     */
+    private static final class Fingerprint {
+        private final BitSet visible;
+        private final boolean player;
+
+        private Fingerprint(@NotNull BitSet visible, boolean player) {
+            this.visible = visible;
+            this.player = player;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) obj;
+            return player == other.player && visible.equals(other.visible);
+        }
+
+        @Override
+        public int hashCode() {
+            return visible.hashCode() * 31 + (player ? 1 : 0);
+        }
+    }
+
+    /**
+     * The full text of an index for a set of visible topics, and its word
+     * wrapped lines for every line length.
+     */
+    private static final class Rendering {
+        private final Fingerprint fingerprint;
+        private final Map<Integer, String[]> lines = new ConcurrentHashMap<Integer, String[]>();
+        private volatile String fullText;
+
+        private Rendering(@NotNull Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        @NotNull
+        private String getFullText(@NotNull RenderedIndex index) {
+            String text = fullText;
+            if (text == null) {
+                StringBuilder sb = new StringBuilder();
+                if (index.renderedPreamble != null) {
+                    sb.append(index.renderedPreamble);
+                    sb.append("\n");
+                }
+
+                BitSet visible = fingerprint.visible;
+                for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+                    String lineStr = index.lines[i];
+                    if (fingerprint.player && lineStr.length() > ChatPaginator.GUARANTEED_NO_WRAP_CHAT_PAGE_WIDTH) {
+                        sb.append(lineStr, 0, ChatPaginator.GUARANTEED_NO_WRAP_CHAT_PAGE_WIDTH - 3);
+                        sb.append("...");
+                    } else {
+                        sb.append(lineStr);
+                    }
+                    sb.append("\n");
+                }
+                text = sb.toString();
+                fullText = text;
+            }
+            return text;
+        }
+
+        @NotNull
+        private String[] getLines(@NotNull RenderedIndex index, int lineLength) {
+            String[] wrapped = lines.get(lineLength);
+            if (wrapped == null) {
+                if (lines.size() >= MAX_CACHED_RENDERINGS) {
+                    lines.clear();
+                }
+                wrapped = ChatPaginator.wordWrap(getFullText(index), lineLength);
+                lines.put(lineLength, wrapped);
+            }
+            return wrapped;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package org.bukkit.metadata;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A BooleanMetadataValue is a metadata item holding a single boolean which
+ * can be updated in place, so that frequently changing flags can be kept
+ * without allocating a new metadata value on every update. Invalidating a
+ * BooleanMetadataValue has no effect.
+ * <p>
+ * Updates are atomic and may be made from any thread.
+ */
+public class BooleanMetadataValue extends MetadataValueAdapter {
+    private final AtomicBoolean internalValue;
+
+    /**
+     * Initializes a BooleanMetadataValue with a boolean.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the initial value of this metadata value
+     */
+    public BooleanMetadataValue(@NotNull Plugin owningPlugin, boolean value) {
+        super(owningPlugin);
+        this.internalValue = new AtomicBoolean(value);
+    }
+
+    /**
+     * Sets the value of this metadata value.
+     *
+     * @param value the new value
+     */
+    public void set(boolean value) {
+        internalValue.set(value);
+    }
+
+    /**
+     * Inverts the value of this metadata value.
+     *
+     * @return the updated value
+     */
+    public boolean toggle() {
+        while (true) {
+            boolean value = internalValue.get();
+            if (internalValue.compareAndSet(value, !value)) {
+                return !value;
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public Object value() {
+        return internalValue.get();
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return internalValue.get();
+    }
+
+    @NotNull
+    @Override
+    public String asString() {
+        return Boolean.toString(internalValue.get());
+    }
+
+    @Override
+    public void invalidate() {
+
+    }
+}
@@ -0,0 +1,109 @@
+package org.bukkit.metadata;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A DoubleMetadataValue is a metadata item holding a single double which
+ * can be updated in place, so that frequently changing values can be kept
+ * without allocating a new metadata value or boxing the value on every
+ * update. Invalidating a DoubleMetadataValue has no effect.
+ * <p>
+ * Updates are atomic and may be made from any thread.
+ */
+public class DoubleMetadataValue extends MetadataValueAdapter {
+    /**
+     * The bits of the double value, as returned by {@link
+     * Double#doubleToRawLongBits(double)}.
+     */
+    private final AtomicLong internalValue;
+
+    /**
+     * Initializes a DoubleMetadataValue with a double.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the initial value of this metadata value
+     */
+    public DoubleMetadataValue(@NotNull Plugin owningPlugin, double value) {
+        super(owningPlugin);
+        this.internalValue = new AtomicLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Sets the value of this metadata value.
+     *
+     * @param value the new value
+     */
+    public void set(double value) {
+        internalValue.set(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Adds to the value of this metadata value.
+     *
+     * @param delta the amount to add
+     * @return the updated value
+     */
+    public double add(double delta) {
+        while (true) {
+            long bits = internalValue.get();
+            double updated = Double.longBitsToDouble(bits) + delta;
+            if (internalValue.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                return updated;
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public Object value() {
+        return asDouble();
+    }
+
+    @Override
+    public int asInt() {
+        return (int) asDouble();
+    }
+
+    @Override
+    public float asFloat() {
+        return (float) asDouble();
+    }
+
+    @Override
+    public double asDouble() {
+        return Double.longBitsToDouble(internalValue.get());
+    }
+
+    @Override
+    public long asLong() {
+        return (long) asDouble();
+    }
+
+    @Override
+    public short asShort() {
+        return (short) asDouble();
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) asDouble();
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return (int) asDouble() != 0;
+    }
+
+    @NotNull
+    @Override
+    public String asString() {
+        return Double.toString(asDouble());
+    }
+
+    @Override
+    public void invalidate() {
+
+    }
+}
@@ -0,0 +1,117 @@
+package org.bukkit.metadata;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An IntMetadataValue is a metadata item holding a single int which can
+ * be updated in place, so that frequently changing values such as counters
+ * can be kept without allocating a new metadata value or boxing the value
+ * on every update. Invalidating an IntMetadataValue has no effect.
+ * <p>
+ * Updates are atomic and may be made from any thread.
+ */
+public class IntMetadataValue extends MetadataValueAdapter {
+    private final AtomicInteger internalValue;
+
+    /**
+     * Initializes an IntMetadataValue with an int.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the initial value of this metadata value
+     */
+    public IntMetadataValue(@NotNull Plugin owningPlugin, int value) {
+        super(owningPlugin);
+        this.internalValue = new AtomicInteger(value);
+    }
+
+    /**
+     * Sets the value of this metadata value.
+     *
+     * @param value the new value
+     */
+    public void set(int value) {
+        internalValue.set(value);
+    }
+
+    /**
+     * Adds to the value of this metadata value.
+     *
+     * @param delta the amount to add
+     * @return the updated value
+     */
+    public int add(int delta) {
+        return internalValue.addAndGet(delta);
+    }
+
+    /**
+     * Increments the value of this metadata value by one.
+     *
+     * @return the updated value
+     */
+    public int increment() {
+        return internalValue.incrementAndGet();
+    }
+
+    /**
+     * Decrements the value of this metadata value by one.
+     *
+     * @return the updated value
+     */
+    public int decrement() {
+        return internalValue.decrementAndGet();
+    }
+
+    @NotNull
+    @Override
+    public Object value() {
+        return internalValue.get();
+    }
+
+    @Override
+    public int asInt() {
+        return internalValue.get();
+    }
+
+    @Override
+    public float asFloat() {
+        return internalValue.get();
+    }
+
+    @Override
+    public double asDouble() {
+        return internalValue.get();
+    }
+
+    @Override
+    public long asLong() {
+        return internalValue.get();
+    }
+
+    @Override
+    public short asShort() {
+        return (short) internalValue.get();
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) internalValue.get();
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return internalValue.get() != 0;
+    }
+
+    @NotNull
+    @Override
+    public String asString() {
+        return Integer.toString(internalValue.get());
+    }
+
+    @Override
+    public void invalidate() {
+
+    }
+}
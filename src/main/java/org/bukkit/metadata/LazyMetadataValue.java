@@ -2,7 +2,10 @@ package org.bukkit.metadata;
 
 import com.google.common.base.Preconditions;
 import java.lang.ref.SoftReference;
+import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,11 +20,25 @@ import org.jetbrains.annotations.Nullable;
  * by a {@link CacheStrategy} or invalidated at the individual or plugin
  * level. Once invalidated, the LazyMetadataValue will recompute its value
  * when asked.
+ * <p>
+ * A LazyMetadataValue may also be given an {@link Executor} to compute its
+ * value on, in which case asking for the value never blocks on the
+ * computation: the last computed value is returned while a new one is
+ * computed in the background, and null is returned until the first
+ * computation completes. Combined with an expiry, this refreshes the value
+ * in the background once it gets too old, while still serving the stale
+ * value in the meantime.
  */
 public class LazyMetadataValue extends MetadataValueAdapter {
     private Callable<Object> lazyValue;
     private CacheStrategy cacheStrategy;
     private SoftReference<Object> internalValue;
+    private long expiryNanos;
+    private Executor executor;
+    private long evaluatedAt;
+    private boolean stale;
+    private boolean refreshing;
+    private long generation;
     private static final Object ACTUALLY_NULL = new Object();
 
     /**
@@ -48,12 +65,67 @@ public class LazyMetadataValue extends MetadataValueAdapter {
     public LazyMetadataValue(@NotNull Plugin owningPlugin, @NotNull CacheStrategy cacheStrategy, @NotNull Callable<Object> lazyValue) {
         super(owningPlugin);
         Preconditions.checkArgument(cacheStrategy != null, "cacheStrategy cannot be null");
+        Preconditions.checkArgument(cacheStrategy != CacheStrategy.EXPIRE_AFTER_EVAL, "EXPIRE_AFTER_EVAL requires an expiry");
         Preconditions.checkArgument(lazyValue != null, "lazyValue cannot be null");
         this.internalValue = new SoftReference<Object>(null);
         this.lazyValue = lazyValue;
         this.cacheStrategy = cacheStrategy;
     }
 
+    /**
+     * Initializes a LazyMetadataValue object with the EXPIRE_AFTER_EVAL
+     * cache strategy.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata
+     *     value.
+     * @param expiry how long a computed value is cached for.
+     * @param lazyValue the lazy value assigned to this metadata value.
+     */
+    public LazyMetadataValue(@NotNull Plugin owningPlugin, @NotNull Duration expiry, @NotNull Callable<Object> lazyValue) {
+        this(owningPlugin, CacheStrategy.CACHE_AFTER_FIRST_EVAL, lazyValue);
+        Preconditions.checkArgument(expiry != null, "expiry cannot be null");
+        Preconditions.checkArgument(!expiry.isNegative() && !expiry.isZero(), "expiry must be positive");
+        this.cacheStrategy = CacheStrategy.EXPIRE_AFTER_EVAL;
+        this.expiryNanos = expiry.toNanos();
+    }
+
+    /**
+     * Initializes a LazyMetadataValue object with a specific cache strategy,
+     * which computes its value asynchronously on the given executor.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata
+     *     value.
+     * @param cacheStrategy determines the rules for caching this metadata
+     *     value.
+     * @param executor the executor computing the value.
+     * @param lazyValue the lazy value assigned to this metadata value.
+     */
+    public LazyMetadataValue(@NotNull Plugin owningPlugin, @NotNull CacheStrategy cacheStrategy, @NotNull Executor executor, @NotNull Callable<Object> lazyValue) {
+        this(owningPlugin, cacheStrategy, lazyValue);
+        Preconditions.checkArgument(executor != null, "executor cannot be null");
+        this.executor = executor;
+    }
+
+    /**
+     * Initializes a LazyMetadataValue object with the EXPIRE_AFTER_EVAL
+     * cache strategy, which computes its value asynchronously on the given
+     * executor.
+     * <p>
+     * Once the value expires, it is still returned until the new value has
+     * been computed.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata
+     *     value.
+     * @param expiry how long a computed value is considered fresh for.
+     * @param executor the executor computing the value.
+     * @param lazyValue the lazy value assigned to this metadata value.
+     */
+    public LazyMetadataValue(@NotNull Plugin owningPlugin, @NotNull Duration expiry, @NotNull Executor executor, @NotNull Callable<Object> lazyValue) {
+        this(owningPlugin, expiry, lazyValue);
+        Preconditions.checkArgument(executor != null, "executor cannot be null");
+        this.executor = executor;
+    }
+
     /**
      * Protected special constructor used by FixedMetadataValue to bypass
      * standard setup.
@@ -67,38 +139,122 @@ public class LazyMetadataValue extends MetadataValueAdapter {
     @Override
     @Nullable
     public Object value() {
-        eval();
-        Object value = internalValue.get();
+        Object value = eval();
         if (value == ACTUALLY_NULL) {
             return null;
         }
         return value;
     }
 
+    /**
+     * Checks whether a value has been computed and is currently cached.
+     * <p>
+     * This is mainly useful for values computed asynchronously, to tell a
+     * value which has not been computed yet from a null value.
+     *
+     * @return true if a value is cached
+     */
+    public synchronized boolean hasValue() {
+        return internalValue != null && internalValue.get() != null;
+    }
+
     /**
      * Lazily evaluates the value of this metadata item.
+     * <p>
+     * If this value is computed asynchronously, a computation is started if
+     * needed and the last computed value is returned right away.
      *
+     * @return the cached value, or null if none has been computed yet
      * @throws MetadataEvaluationException if computing the metadata value
      *     fails.
      */
-    private synchronized void eval() throws MetadataEvaluationException {
-        if (cacheStrategy == CacheStrategy.NEVER_CACHE || internalValue.get() == null) {
+    @Nullable
+    private synchronized Object eval() throws MetadataEvaluationException {
+        Object value = internalValue.get();
+        if (cacheStrategy == CacheStrategy.NEVER_CACHE || value == null || stale || isExpired()) {
+            if (executor != null) {
+                refresh();
+                return internalValue.get();
+            }
+
             try {
-                Object value = lazyValue.call();
+                value = lazyValue.call();
                 if (value == null) {
                     value = ACTUALLY_NULL;
                 }
-                internalValue = new SoftReference<Object>(value);
+                store(value);
             } catch (Exception e) {
                 throw new MetadataEvaluationException(e);
             }
         }
+        return value;
+    }
+
+    private boolean isExpired() {
+        return cacheStrategy == CacheStrategy.EXPIRE_AFTER_EVAL && System.nanoTime() - evaluatedAt >= expiryNanos;
+    }
+
+    private void store(@NotNull Object value) {
+        internalValue = new SoftReference<Object>(value);
+        evaluatedAt = System.nanoTime();
+        stale = false;
+    }
+
+    /**
+     * Starts computing the value on the executor, unless a computation is
+     * already running. Failures are logged to the owning plugin, and keep
+     * the previous value.
+     * <p>
+     * If this value is invalidated while the computation is running, the
+     * computed value is stored as stale, so that it is computed again the
+     * next time it is asked for.
+     */
+    private void refresh() {
+        if (refreshing) {
+            return;
+        }
+
+        final long started = generation;
+        refreshing = true;
+        try {
+            executor.execute(() -> {
+                Object value = null;
+                try {
+                    value = lazyValue.call();
+                    if (value == null) {
+                        value = ACTUALLY_NULL;
+                    }
+                } catch (Exception e) {
+                    Plugin plugin = getOwningPlugin();
+                    if (plugin != null) {
+                        plugin.getLogger().log(Level.WARNING, "Could not compute metadata value", e);
+                    }
+                }
+
+                synchronized (LazyMetadataValue.this) {
+                    if (value != null) {
+                        store(value);
+                        stale = generation != started;
+                    }
+                    refreshing = false;
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing = false;
+            throw new MetadataEvaluationException(e);
+        }
     }
 
     @Override
     public synchronized void invalidate() {
         if (cacheStrategy != CacheStrategy.CACHE_ETERNALLY) {
-            internalValue.clear();
+            generation++;
+            if (executor != null) {
+                // Keep returning the previous value until the new one is computed
+                stale = true;
+            } else {
+                internalValue.clear();
+            }
         }
     }
 
@@ -121,6 +277,13 @@ public class LazyMetadataValue extends MetadataValueAdapter {
          * Once the metadata value has been evaluated, do not re-evaluate the
          * value in spite of manual invalidation.
          */
-        CACHE_ETERNALLY
+        CACHE_ETERNALLY,
+
+        /**
+         * Once the metadata value has been evaluated, re-evaluate the value
+         * when it is requested after the expiry given when creating the
+         * value has elapsed, or after it is manually invalidated.
+         */
+        EXPIRE_AFTER_EVAL
     }
 }
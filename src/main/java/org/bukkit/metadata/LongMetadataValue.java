@@ -0,0 +1,117 @@
+package org.bukkit.metadata;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A LongMetadataValue is a metadata item holding a single long which can
+ * be updated in place, so that frequently changing values such as counters
+ * can be kept without allocating a new metadata value or boxing the value
+ * on every update. Invalidating a LongMetadataValue has no effect.
+ * <p>
+ * Updates are atomic and may be made from any thread.
+ */
+public class LongMetadataValue extends MetadataValueAdapter {
+    private final AtomicLong internalValue;
+
+    /**
+     * Initializes a LongMetadataValue with a long.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the initial value of this metadata value
+     */
+    public LongMetadataValue(@NotNull Plugin owningPlugin, long value) {
+        super(owningPlugin);
+        this.internalValue = new AtomicLong(value);
+    }
+
+    /**
+     * Sets the value of this metadata value.
+     *
+     * @param value the new value
+     */
+    public void set(long value) {
+        internalValue.set(value);
+    }
+
+    /**
+     * Adds to the value of this metadata value.
+     *
+     * @param delta the amount to add
+     * @return the updated value
+     */
+    public long add(long delta) {
+        return internalValue.addAndGet(delta);
+    }
+
+    /**
+     * Increments the value of this metadata value by one.
+     *
+     * @return the updated value
+     */
+    public long increment() {
+        return internalValue.incrementAndGet();
+    }
+
+    /**
+     * Decrements the value of this metadata value by one.
+     *
+     * @return the updated value
+     */
+    public long decrement() {
+        return internalValue.decrementAndGet();
+    }
+
+    @NotNull
+    @Override
+    public Object value() {
+        return internalValue.get();
+    }
+
+    @Override
+    public int asInt() {
+        return (int) internalValue.get();
+    }
+
+    @Override
+    public float asFloat() {
+        return internalValue.get();
+    }
+
+    @Override
+    public double asDouble() {
+        return internalValue.get();
+    }
+
+    @Override
+    public long asLong() {
+        return internalValue.get();
+    }
+
+    @Override
+    public short asShort() {
+        return (short) internalValue.get();
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) internalValue.get();
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return internalValue.get() != 0;
+    }
+
+    @NotNull
+    @Override
+    public String asString() {
+        return Long.toString(internalValue.get());
+    }
+
+    @Override
+    public void invalidate() {
+
+    }
+}
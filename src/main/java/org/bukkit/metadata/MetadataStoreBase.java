@@ -1,18 +1,75 @@
 package org.bukkit.metadata;
 
 import com.google.common.base.Preconditions;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Base implementation of a {@link MetadataStore}.
+ * <p>
+ * This implementation may be used from multiple threads. The metadata of
+ * each subject is an immutable snapshot which is replaced whenever it is
+ * modified, so reading metadata never blocks, and only modifications of the
+ * same subject contend with each other.
+ * <p>
+ * Values are held for as long as their owning plugin is reachable: values
+ * whose {@link MetadataValue#getOwningPlugin()} has been garbage collected
+ * are no longer returned.
+ * <p>
+ * Metadata is kept until it is removed, which can be done for a whole
+ * subject with {@link #removeAllMetadata(Object)} or for all subjects in a
+ * region with {@link #removeRegion(Object)}. Stores whose subjects are
+ * represented by the same object for as long as they exist can also have
+ * metadata removed once that object is garbage collected.
+ *
+ * @param <T> the type of subjects
+ */
 public abstract class MetadataStoreBase<T> {
-    private Map<String, Map<Plugin, MetadataValue>> metadataMap = new HashMap<String, Map<Plugin, MetadataValue>>();
+    private final ConcurrentMap<Object, SubjectMetadata> metadataMap = new ConcurrentHashMap<Object, SubjectMetadata>();
+    private final ConcurrentMap<Object, Set<Object>> regions = new ConcurrentHashMap<Object, Set<Object>>();
+    private final ReferenceQueue<Object> collectedSubjects;
+    private final boolean legacySubjectKeys = overridesDisambiguate(getClass());
+
+    /**
+     * Creates a metadata store which keeps metadata until it is removed.
+     */
+    public MetadataStoreBase() {
+        this(false);
+    }
+
+    /**
+     * Creates a metadata store.
+     * <p>
+     * If {@code weakSubjects} is true, the metadata of a subject is removed
+     * once the last object given as that subject to {@link
+     * #setMetadata(Object, String, MetadataValue)} has been garbage
+     * collected. This should only be used if a subject is represented by
+     * the same object for as long as its metadata is relevant, such as an
+     * entity which stays loaded, and not for subjects whose objects are
+     * created on demand, such as blocks. As the key of a subject is held
+     * strongly, such stores must not key subjects by the subject objects
+     * themselves, see {@link #getSubjectKey(Object)}.
+     *
+     * @param weakSubjects whether metadata should be removed along with the
+     *     subject objects
+     */
+    public MetadataStoreBase(boolean weakSubjects) {
+        this.collectedSubjects = weakSubjects ? new ReferenceQueue<Object>() : null;
+    }
 
     /**
      * Adds a metadata value to an object. Each metadata value is owned by a
@@ -20,14 +77,6 @@ public abstract class MetadataStoreBase<T> {
      * to an object, that value will be replaced with the value of {@code
      * newMetadataValue}. Multiple plugins can set independent values for the
      * same {@code metadataKey} without conflict.
-     * <p>
-     * Implementation note: I considered using a {@link
-     * java.util.concurrent.locks.ReadWriteLock} for controlling access to
-     * {@code metadataMap}, but decided that the added overhead wasn't worth
-     * the finer grained access control.
-     * <p>
-     * Bukkit is almost entirely single threaded so locking overhead shouldn't
-     * pose a problem.
      *
      * @param subject The object receiving the metadata.
      * @param metadataKey A unique key to identify this metadata.
@@ -36,17 +85,30 @@ public abstract class MetadataStoreBase<T> {
      *     is null
      * @see MetadataStore#setMetadata(Object, String, MetadataValue)
      */
-    public synchronized void setMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull MetadataValue newMetadataValue) {
+    public void setMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull MetadataValue newMetadataValue) {
         Preconditions.checkArgument(newMetadataValue != null, "Value cannot be null");
         Plugin owningPlugin = newMetadataValue.getOwningPlugin();
         Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
-            entry = new WeakHashMap<Plugin, MetadataValue>(1);
-            metadataMap.put(key, entry);
-        }
-        entry.put(owningPlugin, newMetadataValue);
+        Object region = getRegionKey(subject);
+        expungeCollectedSubjects();
+        metadataMap.compute(getSubjectKey(subject), (subjectKey, metadata) -> {
+            if (metadata == null) {
+                metadata = SubjectMetadata.EMPTY;
+            }
+
+            if (!Objects.equals(metadata.region, region)) {
+                unindex(metadata.region, subjectKey);
+                index(region, subjectKey);
+            }
+
+            SubjectReference reference = metadata.reference;
+            if (collectedSubjects != null && (reference == null || reference.get() != subject)) {
+                reference = new SubjectReference(subject, subjectKey, collectedSubjects);
+            }
+
+            Entry entry = metadata.get(metadataKey);
+            return metadata.withSubject(region, reference).with(metadataKey, (entry == null) ? new Entry(newMetadataValue) : entry.with(owningPlugin, newMetadataValue));
+        });
     }
 
     /**
@@ -55,16 +117,17 @@ public abstract class MetadataStoreBase<T> {
      *
      * @param subject the object being interrogated.
      * @param metadataKey the unique metadata key being sought.
-     * @return A list of values, one for each plugin that has set the
-     *     requested value.
+     * @return An unmodifiable list of values, one for each plugin that has
+     *     set the requested value. The list is not affected by later
+     *     modifications of the metadata.
      * @see MetadataStore#getMetadata(Object, String)
      */
     @NotNull
-    public synchronized List<MetadataValue> getMetadata(@NotNull T subject, @NotNull String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        if (metadataMap.containsKey(key)) {
-            Collection<MetadataValue> values = metadataMap.get(key).values();
-            return Collections.unmodifiableList(new ArrayList<MetadataValue>(values));
+    public List<MetadataValue> getMetadata(@NotNull T subject, @NotNull String metadataKey) {
+        SubjectMetadata metadata = metadataMap.get(getSubjectKey(subject));
+        Entry entry = (metadata == null) ? null : metadata.get(metadataKey);
+        if (entry != null) {
+            return entry.values();
         } else {
             return Collections.emptyList();
         }
@@ -78,9 +141,9 @@ public abstract class MetadataStoreBase<T> {
      * @param metadataKey the unique metadata key being queried.
      * @return the existence of the metadataKey within subject.
      */
-    public synchronized boolean hasMetadata(@NotNull T subject, @NotNull String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        return metadataMap.containsKey(key);
+    public boolean hasMetadata(@NotNull T subject, @NotNull String metadataKey) {
+        SubjectMetadata metadata = metadataMap.get(getSubjectKey(subject));
+        return metadata != null && metadata.get(metadataKey) != null;
     }
 
     /**
@@ -94,18 +157,89 @@ public abstract class MetadataStoreBase<T> {
      * @see MetadataStore#removeMetadata(Object, String,
      *     Plugin)
      */
-    public synchronized void removeMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull Plugin owningPlugin) {
+    public void removeMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull Plugin owningPlugin) {
         Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
+        metadataMap.computeIfPresent(getSubjectKey(subject), (subjectKey, metadata) -> {
+            Entry entry = metadata.get(metadataKey);
+            if (entry == null) {
+                return metadata;
+            }
+
+            entry = entry.without(owningPlugin);
+            metadata = (entry == null) ? metadata.without(metadataKey) : metadata.with(metadataKey, entry);
+            if (metadata.isEmpty()) {
+                unindex(metadata.region, subjectKey);
+                return null;
+            }
+            return metadata;
+        });
+    }
+
+    /**
+     * Removes all metadata of all plugins from a subject, such as when the
+     * subject is removed from the world.
+     *
+     * @param subject the object to remove the metadata from.
+     */
+    public void removeAllMetadata(@NotNull T subject) {
+        metadataMap.computeIfPresent(getSubjectKey(subject), (subjectKey, metadata) -> {
+            unindex(metadata.region, subjectKey);
+            return null;
+        });
+    }
+
+    /**
+     * Removes all metadata of all subjects in a region, such as when a chunk
+     * or a world is unloaded.
+     * <p>
+     * The region of a subject is the one returned by {@link
+     * #getRegionKey(Object)} when its metadata was last set.
+     *
+     * @param region the region, as returned by {@link #getRegionKey(Object)}
+     * @throws IllegalArgumentException If region is null
+     */
+    public void removeRegion(@NotNull Object region) {
+        Preconditions.checkArgument(region != null, "Region cannot be null");
+        Set<Object> subjectKeys = regions.remove(region);
+        if (subjectKeys == null) {
             return;
         }
 
-        entry.remove(owningPlugin);
-        if (entry.isEmpty()) {
-            metadataMap.remove(key);
+        for (Object subjectKey : subjectKeys) {
+            metadataMap.computeIfPresent(subjectKey, (key, metadata) -> region.equals(metadata.region) ? null : metadata);
+        }
+    }
+
+    /**
+     * Counts the metadata values in this store owned by each plugin.
+     *
+     * @return the number of values owned by each plugin
+     */
+    @NotNull
+    public Map<Plugin, Integer> getValueCounts() {
+        expungeCollectedSubjects();
+        Map<Plugin, Integer> counts = new HashMap<Plugin, Integer>();
+        for (SubjectMetadata metadata : metadataMap.values()) {
+            for (Entry entry : metadata.entries) {
+                for (MetadataValue value : entry.values) {
+                    Plugin plugin = value.getOwningPlugin();
+                    if (plugin != null) {
+                        counts.merge(plugin, 1, Integer::sum);
+                    }
+                }
+            }
         }
+        return counts;
+    }
+
+    /**
+     * Gets the number of subjects which have metadata in this store.
+     *
+     * @return the number of subjects
+     */
+    public int getSubjectCount() {
+        expungeCollectedSubjects();
+        return metadataMap.size();
     }
 
     /**
@@ -117,11 +251,14 @@ public abstract class MetadataStoreBase<T> {
      * @throws IllegalArgumentException If plugin is null
      * @see MetadataStore#invalidateAll(Plugin)
      */
-    public synchronized void invalidateAll(@NotNull Plugin owningPlugin) {
+    public void invalidateAll(@NotNull Plugin owningPlugin) {
         Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
-        for (Map<Plugin, MetadataValue> values : metadataMap.values()) {
-            if (values.containsKey(owningPlugin)) {
-                values.get(owningPlugin).invalidate();
+        for (SubjectMetadata metadata : metadataMap.values()) {
+            for (Entry entry : metadata.entries) {
+                MetadataValue value = entry.get(owningPlugin);
+                if (value != null) {
+                    value.invalidate();
+                }
             }
         }
     }
@@ -134,11 +271,269 @@ public abstract class MetadataStoreBase<T> {
      * two equivalent objects must generate the same unique name. For example,
      * two Player objects must generate the same string if they represent the
      * same player, even if the objects would fail a reference equality test.
+     * <p>
+     * This is only used to key subjects if it is overridden, and the default
+     * implementation combines the string form of the subject with the
+     * metadataKey.
      *
      * @param subject The object for which this key is being generated.
      * @param metadataKey The name identifying the metadata value.
      * @return a unique metadata key for the given subject.
      */
     @NotNull
-    protected abstract String disambiguate(@NotNull T subject, @NotNull String metadataKey);
+    protected String disambiguate(@NotNull T subject, @NotNull String metadataKey) {
+        return subject + ":" + metadataKey;
+    }
+
+    /**
+     * Gets a key identifying the object receiving metadata, under which all
+     * of its metadata is stored.
+     * <p>
+     * Any two equivalent objects must return equal keys. The default
+     * implementation returns the subject itself, which relies on its {@code
+     * equals} and {@code hashCode} methods, unless {@link
+     * #disambiguate(Object, String)} is overridden, in which case it returns
+     * {@code disambiguate(subject, "")} as older stores expect.
+     * Implementations may override this to return a key which is cheaper to
+     * compare, such as the unique id of an entity.
+     *
+     * @param subject The object for which the key is being generated.
+     * @return a key identifying the given subject.
+     */
+    @NotNull
+    protected Object getSubjectKey(@NotNull T subject) {
+        return legacySubjectKeys ? disambiguate(subject, "") : subject;
+    }
+
+    /**
+     * Gets a key identifying the region containing the object receiving
+     * metadata, such as its chunk or its world, which can be passed to
+     * {@link #removeRegion(Object)} to remove the metadata of all subjects
+     * in the region at once.
+     * <p>
+     * The default implementation returns null, which places subjects in no
+     * region.
+     *
+     * @param subject The object for which the key is being generated.
+     * @return a key identifying the region of the given subject, or null
+     */
+    @Nullable
+    protected Object getRegionKey(@NotNull T subject) {
+        return null;
+    }
+
+    private static boolean overridesDisambiguate(@NotNull Class<?> clazz) {
+        for (; clazz != MetadataStoreBase.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getName().equals("disambiguate") && method.getParameterCount() == 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void index(@Nullable Object region, @NotNull Object subjectKey) {
+        if (region != null) {
+            regions.compute(region, (key, subjectKeys) -> {
+                if (subjectKeys == null) {
+                    subjectKeys = ConcurrentHashMap.newKeySet();
+                }
+                subjectKeys.add(subjectKey);
+                return subjectKeys;
+            });
+        }
+    }
+
+    private void unindex(@Nullable Object region, @NotNull Object subjectKey) {
+        if (region != null) {
+            regions.computeIfPresent(region, (key, subjectKeys) -> {
+                subjectKeys.remove(subjectKey);
+                return subjectKeys.isEmpty() ? null : subjectKeys;
+            });
+        }
+    }
+
+    /**
+     * Removes the metadata of subjects which have been garbage collected,
+     * if this store holds its subjects weakly.
+     */
+    private void expungeCollectedSubjects() {
+        if (collectedSubjects == null) {
+            return;
+        }
+
+        SubjectReference reference;
+        while ((reference = (SubjectReference) collectedSubjects.poll()) != null) {
+            SubjectReference collected = reference;
+            metadataMap.computeIfPresent(collected.subjectKey, (subjectKey, metadata) -> {
+                if (metadata.reference != collected) {
+                    return metadata;
+                }
+                unindex(metadata.region, subjectKey);
+                return null;
+            });
+        }
+    }
+
+    private static final class SubjectReference extends WeakReference<Object> {
+        private final Object subjectKey;
+
+        private SubjectReference(@NotNull Object subject, @NotNull Object subjectKey, @NotNull ReferenceQueue<Object> queue) {
+            super(subject, queue);
+            this.subjectKey = subjectKey;
+        }
+    }
+
+    /**
+     * The metadata of a single subject, as an immutable small map of
+     * metadata keys to entries which is searched linearly.
+     */
+    private static final class SubjectMetadata {
+        private static final SubjectMetadata EMPTY = new SubjectMetadata(new String[0], new Entry[0], null, null);
+
+        private final String[] keys;
+        private final Entry[] entries;
+        private final Object region;
+        private final SubjectReference reference;
+
+        private SubjectMetadata(@NotNull String[] keys, @NotNull Entry[] entries, @Nullable Object region, @Nullable SubjectReference reference) {
+            this.keys = keys;
+            this.entries = entries;
+            this.region = region;
+            this.reference = reference;
+        }
+
+        @NotNull
+        private SubjectMetadata withSubject(@Nullable Object region, @Nullable SubjectReference reference) {
+            if (Objects.equals(this.region, region) && this.reference == reference) {
+                return this;
+            }
+            return new SubjectMetadata(keys, entries, region, reference);
+        }
+
+        @Nullable
+        private Entry get(@NotNull String metadataKey) {
+            int index = indexOf(metadataKey);
+            return (index == -1) ? null : entries[index];
+        }
+
+        @NotNull
+        private SubjectMetadata with(@NotNull String metadataKey, @NotNull Entry entry) {
+            int index = indexOf(metadataKey);
+            if (index == -1) {
+                String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+                Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+                newKeys[keys.length] = metadataKey;
+                newEntries[entries.length] = entry;
+                return new SubjectMetadata(newKeys, newEntries, region, reference);
+            }
+
+            Entry[] newEntries = entries.clone();
+            newEntries[index] = entry;
+            return new SubjectMetadata(keys, newEntries, region, reference);
+        }
+
+        @NotNull
+        private SubjectMetadata without(@NotNull String metadataKey) {
+            int index = indexOf(metadataKey);
+            if (index == -1) {
+                return this;
+            }
+
+            String[] newKeys = new String[keys.length - 1];
+            Entry[] newEntries = new Entry[entries.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+            System.arraycopy(entries, index + 1, newEntries, index, newEntries.length - index);
+            return new SubjectMetadata(newKeys, newEntries, region, reference);
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        private int indexOf(@NotNull String metadataKey) {
+            for (int i = 0; i < keys.length; i++) {
+                String key = keys[i];
+                if (key == metadataKey || key.equals(metadataKey)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The values of one metadata key of a subject, at most one per owning
+     * plugin, as an immutable list.
+     */
+    private static final class Entry {
+        private final List<MetadataValue> values;
+
+        private Entry(@NotNull MetadataValue value) {
+            this.values = Collections.singletonList(value);
+        }
+
+        private Entry(@NotNull List<MetadataValue> values) {
+            this.values = Collections.unmodifiableList(values);
+        }
+
+        @Nullable
+        private MetadataValue get(@NotNull Plugin owningPlugin) {
+            for (MetadataValue value : values) {
+                if (owningPlugin.equals(value.getOwningPlugin())) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        @NotNull
+        private Entry with(@NotNull Plugin owningPlugin, @NotNull MetadataValue newValue) {
+            List<MetadataValue> newValues = new ArrayList<MetadataValue>(values.size() + 1);
+            for (MetadataValue value : values) {
+                Plugin plugin = value.getOwningPlugin();
+                if (plugin != null && !plugin.equals(owningPlugin)) {
+                    newValues.add(value);
+                }
+            }
+            newValues.add(newValue);
+            return new Entry(newValues);
+        }
+
+        /**
+         * Returns this entry without the value of the given plugin, or null
+         * if no values would be left.
+         */
+        @Nullable
+        private Entry without(@NotNull Plugin owningPlugin) {
+            List<MetadataValue> newValues = new ArrayList<MetadataValue>(values.size());
+            for (MetadataValue value : values) {
+                Plugin plugin = value.getOwningPlugin();
+                if (plugin != null && !plugin.equals(owningPlugin)) {
+                    newValues.add(value);
+                }
+            }
+            return newValues.isEmpty() ? null : new Entry(newValues);
+        }
+
+        @NotNull
+        private List<MetadataValue> values() {
+            for (MetadataValue value : values) {
+                if (value.getOwningPlugin() == null) {
+                    // Skip the values of plugins which have been garbage collected
+                    List<MetadataValue> live = new ArrayList<MetadataValue>(values.size());
+                    for (MetadataValue candidate : values) {
+                        if (candidate.getOwningPlugin() != null) {
+                            live.add(candidate);
+                        }
+                    }
+                    return Collections.unmodifiableList(live);
+                }
+            }
+            return values;
+        }
+    }
 }
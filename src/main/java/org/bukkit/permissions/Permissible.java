@@ -118,6 +118,37 @@ public interface Permissible extends ServerOperator {
      */
     public void recalculatePermissions();
 
+    /**
+     * Recalculates the permissions for this object after the values of the
+     * given attachment have changed.
+     * <p>
+     * Implementations may use this to only recalculate the permissions
+     * provided by the given attachment. By default, this recalculates all
+     * permissions.
+     *
+     * @param attachment Attachment which has changed
+     */
+    default void recalculatePermissions(@NotNull PermissionAttachment attachment) {
+        recalculatePermissions();
+    }
+
+    /**
+     * Gets a number which changes whenever the permissions of this object
+     * may have changed, such as when they are recalculated or an attachment
+     * changes.
+     * <p>
+     * This lets callers cache results derived from the permissions of this
+     * object for as long as the number stays the same. Changes of the
+     * operator status are not covered unless they recalculate the
+     * permissions. By default, this returns -1, which means the permissions
+     * of this object are not tracked and such results may not be cached.
+     *
+     * @return the current version of the permissions, or -1 if not tracked
+     */
+    default long getPermissionsVersion() {
+        return -1L;
+    }
+
     /**
      * Gets a set containing all of the permissions currently in effect by
      * this object
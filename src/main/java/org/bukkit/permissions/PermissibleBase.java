@@ -1,15 +1,21 @@
 package org.bukkit.permissions;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -21,6 +27,16 @@ public class PermissibleBase implements Permissible {
     private final Permissible parent;
     private final List<PermissionAttachment> attachments = new LinkedList<PermissionAttachment>();
     private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+    private final Map<PermissionAttachment, AttachmentPermissions> attachmentPermissions = new IdentityHashMap<PermissionAttachment, AttachmentPermissions>();
+    private Boolean subscribedOp = null;
+    private boolean calculated = false;
+    private Map<String, Boolean> defaultValues = Collections.emptyMap();
+    private volatile PermissionTrie compiled = PermissionTrie.EMPTY;
+    private volatile PermissionTrie compiledDefaults = PermissionTrie.EMPTY;
+    private volatile boolean wildcardMatching = false;
+    private final AtomicLong permissionsVersion = new AtomicLong();
+    private static volatile CompiledDefaults opDefaults = null;
+    private static volatile CompiledDefaults nonOpDefaults = null;
 
     public PermissibleBase(@Nullable ServerOperator opable) {
         this.opable = opable;
@@ -47,13 +63,40 @@ public class PermissibleBase implements Permissible {
         }
     }
 
+    /**
+     * Gets whether wildcard permissions are matched by this object.
+     *
+     * @return true if wildcards are matched
+     * @see #setWildcardMatching(boolean)
+     */
+    public boolean isWildcardMatching() {
+        return wildcardMatching;
+    }
+
+    /**
+     * Sets whether wildcard permissions are matched by this object.
+     * <p>
+     * If enabled, a permission which is not set itself takes the value of
+     * the closest wildcard permission above it that is set, so that for
+     * example setting {@code plugin.*} also sets {@code plugin.command.use}.
+     * A permission set to {@code *} applies to all permissions.
+     * <p>
+     * Disabled by default.
+     *
+     * @param value true to match wildcards
+     */
+    public void setWildcardMatching(boolean value) {
+        this.wildcardMatching = value;
+        permissionsVersion.incrementAndGet();
+    }
+
     @Override
     public boolean isPermissionSet(@NotNull String name) {
         if (name == null) {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        return permissions.containsKey(name.toLowerCase(Locale.ROOT));
+        return lookup(name) != PermissionTrie.UNSET;
     }
 
     @Override
@@ -71,19 +114,27 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        String name = inName.toLowerCase(Locale.ROOT);
+        boolean timed = PermissionMetrics.enabled;
+        long start = timed ? System.nanoTime() : 0L;
+        int result = lookup(inName);
+        boolean value;
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (result != PermissionTrie.UNSET) {
+            value = (result & PermissionTrie.TRUE) != 0;
         } else {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+            Permission perm = Bukkit.getServer().getPluginManager().getPermission(inName);
 
             if (perm != null) {
-                return perm.getDefault().getValue(isOp());
+                value = perm.getDefault().getValue(isOp());
             } else {
-                return Permission.DEFAULT_PERMISSION.getValue(isOp());
+                value = Permission.DEFAULT_PERMISSION.getValue(isOp());
             }
         }
+
+        if (timed) {
+            PermissionMetrics.recordPermission(inName, value, result != PermissionTrie.UNSET, start);
+        }
+        return value;
     }
 
     @Override
@@ -92,12 +143,21 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        String name = perm.getName().toLowerCase(Locale.ROOT);
+        boolean timed = PermissionMetrics.enabled;
+        long start = timed ? System.nanoTime() : 0L;
+        int result = lookup(perm.getName());
+        boolean value;
+
+        if (result != PermissionTrie.UNSET) {
+            value = (result & PermissionTrie.TRUE) != 0;
+        } else {
+            value = perm.getDefault().getValue(isOp());
+        }
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (timed) {
+            PermissionMetrics.recordPermission(perm.getName(), value, result != PermissionTrie.UNSET, start);
         }
-        return perm.getDefault().getValue(isOp());
+        return value;
     }
 
     @Override
@@ -114,7 +174,7 @@ public class PermissibleBase implements Permissible {
         PermissionAttachment result = addAttachment(plugin);
         result.setPermission(name, value);
 
-        recalculatePermissions();
+        recalculatePermissions(result);
 
         return result;
     }
@@ -131,7 +191,7 @@ public class PermissibleBase implements Permissible {
         PermissionAttachment result = new PermissionAttachment(plugin, parent);
 
         attachments.add(result);
-        recalculatePermissions();
+        recalculatePermissions(result);
 
         return result;
     }
@@ -149,7 +209,12 @@ public class PermissibleBase implements Permissible {
                 ex.attachmentRemoved(attachment);
             }
 
-            recalculatePermissions();
+            AttachmentPermissions removed = attachmentPermissions.remove(attachment);
+            if (calculated && removed != null) {
+                updatePermissions(removed.permissions.keySet(), defaultValues);
+            } else {
+                recalculatePermissions();
+            }
         } else {
             throw new IllegalArgumentException("Given attachment is not part of Permissible object " + parent);
         }
@@ -157,24 +222,77 @@ public class PermissibleBase implements Permissible {
 
     @Override
     public void recalculatePermissions() {
-        clearPermissions();
-        Set<Permission> defaults = Bukkit.getServer().getPluginManager().getDefaultPermissions(isOp());
-        Bukkit.getServer().getPluginManager().subscribeToDefaultPerms(isOp(), parent);
-
-        for (Permission perm : defaults) {
-            String name = perm.getName().toLowerCase(Locale.ROOT);
-            permissions.put(name, new PermissionAttachmentInfo(parent, name, null, true));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
-            calculateChildPermissions(perm.getChildren(), false, null);
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        boolean op = isOp();
+        Set<String> changed = new HashSet<String>(permissions.keySet());
+        Map<String, Boolean> previousDefaults = defaultValues;
+
+        defaultValues = pluginManager.getDefaultPermissionValues(op);
+        compiledDefaults = compileDefaults(op, defaultValues);
+        if (defaultValues != previousDefaults) {
+            changed.addAll(previousDefaults.keySet());
+            changed.addAll(defaultValues.keySet());
         }
 
+        attachmentPermissions.clear();
         for (PermissionAttachment attachment : attachments) {
-            calculateChildPermissions(attachment.getPermissions(), false, attachment);
+            changed.addAll(calculateAttachmentPermissions(attachment).keySet());
+        }
+
+        if (subscribedOp == null || subscribedOp != op) {
+            if (subscribedOp != null) {
+                pluginManager.unsubscribeFromDefaultPerms(subscribedOp, parent);
+            }
+            pluginManager.subscribeToDefaultPerms(op, parent);
+            subscribedOp = op;
+        }
+
+        calculated = true;
+        updatePermissions(changed, previousDefaults);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the permissions provided by the given attachment are calculated
+     * again, and only the permissions whose value changed are subscribed to
+     * or unsubscribed from. If the attachment changed because a single
+     * permission was set or unset, only that permission and its children
+     * are calculated again.
+     */
+    @Override
+    public void recalculatePermissions(@NotNull PermissionAttachment attachment) {
+        if (attachment == null) {
+            throw new IllegalArgumentException("Attachment cannot be null");
+        }
+
+        if (!attachments.contains(attachment)) {
+            return;
+        }
+        if (!calculated) {
+            recalculatePermissions();
+            return;
         }
+
+        AttachmentPermissions previous = attachmentPermissions.get(attachment);
+        String name = attachment.getChangedPermission();
+        Set<String> changed;
+
+        if (previous != null && name != null) {
+            changed = previous.update(name, attachment.getPermissionValue(name));
+        } else {
+            changed = new HashSet<String>(calculateAttachmentPermissions(attachment).keySet());
+            if (previous != null) {
+                changed.addAll(previous.permissions.keySet());
+            }
+        }
+
+        updatePermissions(changed, defaultValues);
     }
 
     public synchronized void clearPermissions() {
-        Set<String> perms = permissions.keySet();
+        Set<String> perms = new HashSet<String>(permissions.keySet());
+        perms.addAll(defaultValues.keySet());
 
         for (String name : perms) {
             Bukkit.getServer().getPluginManager().unsubscribeFromPermission(name, parent);
@@ -184,9 +302,26 @@ public class PermissibleBase implements Permissible {
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(true, parent);
 
         permissions.clear();
+        defaultValues = Collections.emptyMap();
+        attachmentPermissions.clear();
+        subscribedOp = null;
+        calculated = false;
+        compiled = PermissionTrie.EMPTY;
+        compiledDefaults = PermissionTrie.EMPTY;
+        permissionsVersion.incrementAndGet();
     }
 
-    private void calculateChildPermissions(@NotNull Map<String, Boolean> children, boolean invert, @Nullable PermissionAttachment attachment) {
+    @NotNull
+    private Map<String, PermissionAttachmentInfo> calculateAttachmentPermissions(@NotNull PermissionAttachment attachment) {
+        AttachmentPermissions result = new AttachmentPermissions(attachment);
+        for (Map.Entry<String, Boolean> entry : attachment.getPermissions().entrySet()) {
+            result.update(entry.getKey(), entry.getValue());
+        }
+        attachmentPermissions.put(attachment, result);
+        return result.permissions;
+    }
+
+    private void calculateChildPermissions(@NotNull Map<String, PermissionAttachmentInfo> result, @NotNull Map<String, Boolean> children, boolean invert, @Nullable PermissionAttachment attachment) {
         for (Map.Entry<String, Boolean> entry : children.entrySet()) {
             String name = entry.getKey();
 
@@ -194,13 +329,117 @@ public class PermissibleBase implements Permissible {
             boolean value = entry.getValue() ^ invert;
             String lname = name.toLowerCase(Locale.ROOT);
 
-            permissions.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+            result.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
 
             if (perm != null) {
-                calculateChildPermissions(perm.getChildren(), !value, attachment);
+                calculateChildPermissions(result, perm.getChildren(), !value, attachment);
+            }
+        }
+    }
+
+    /**
+     * Updates the value of the given permissions from the attachments, where
+     * later attachments take precedence, and keeps the permission
+     * subscriptions in sync with the attachments and the default
+     * permissions.
+     *
+     * @param names Names of the permissions which may have changed
+     * @param previousDefaults Default permission values before the change
+     */
+    private void updatePermissions(@NotNull Set<String> names, @NotNull Map<String, Boolean> previousDefaults) {
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        Map<String, Boolean> values = new HashMap<String, Boolean>();
+
+        for (String name : names) {
+            PermissionAttachmentInfo info = resolvePermission(name);
+            PermissionAttachmentInfo previous = (info == null) ? permissions.remove(name) : permissions.put(name, info);
+            Boolean value = (info == null) ? null : info.getValue();
+            if (previous == null || value == null || previous.getValue() != value) {
+                values.put(name, value);
+            }
+            boolean wasSet = previous != null || previousDefaults.containsKey(name);
+            boolean isSet = info != null || defaultValues.containsKey(name);
+
+            if (!wasSet && isSet) {
+                pluginManager.subscribeToPermission(name, parent);
+            } else if (wasSet && !isSet) {
+                pluginManager.unsubscribeFromPermission(name, parent);
+            }
+        }
+
+        compiled = compiled.with(values);
+        permissionsVersion.incrementAndGet();
+    }
+
+    @Override
+    public long getPermissionsVersion() {
+        return permissionsVersion.get();
+    }
+
+    @Nullable
+    private PermissionAttachmentInfo resolvePermission(@NotNull String name) {
+        for (ListIterator<PermissionAttachment> iterator = attachments.listIterator(attachments.size()); iterator.hasPrevious();) {
+            AttachmentPermissions layer = attachmentPermissions.get(iterator.previous());
+
+            if (layer != null) {
+                PermissionAttachmentInfo info = layer.permissions.get(name);
+                if (info != null) {
+                    return info;
+                }
             }
         }
+
+        return null;
+    }
+
+    /**
+     * Looks up the value of a permission, first in the permissions set by
+     * attachments and then in the default permissions.
+     * <p>
+     * A permission set by either takes precedence over any wildcard, and
+     * wildcards set by attachments take precedence over default ones.
+     *
+     * @param name Name of the permission
+     * @return The result of the lookup, as returned by {@link
+     *     PermissionTrie#get(String, boolean)}
+     */
+    private int lookup(@NotNull String name) {
+        boolean wildcards = wildcardMatching;
+        int result = compiled.get(name, wildcards);
+        if (result != PermissionTrie.UNSET && (result & PermissionTrie.WILDCARD) == 0) {
+            return result;
+        }
+
+        int defaultResult = compiledDefaults.get(name, wildcards);
+        if (defaultResult != PermissionTrie.UNSET && (defaultResult & PermissionTrie.WILDCARD) == 0) {
+            return defaultResult;
+        }
+        return (result != PermissionTrie.UNSET) ? result : defaultResult;
+    }
+
+    /**
+     * Compiles the given default permission values, reusing the result of
+     * the last compilation for the same op status if the values are the
+     * same map, as they are shared by all permissibles.
+     *
+     * @param op Op status of the defaults
+     * @param values Default permission values
+     * @return The compiled defaults
+     */
+    @NotNull
+    private static PermissionTrie compileDefaults(boolean op, @NotNull Map<String, Boolean> values) {
+        CompiledDefaults cached = op ? opDefaults : nonOpDefaults;
+        if (cached != null && cached.values == values) {
+            return cached.trie;
+        }
+
+        cached = new CompiledDefaults(values, PermissionTrie.compile(values));
+        if (op) {
+            opDefaults = cached;
+        } else {
+            nonOpDefaults = cached;
+        }
+        return cached.trie;
     }
 
     @Override
@@ -246,7 +485,118 @@ public class PermissibleBase implements Permissible {
     @Override
     @NotNull
     public Set<PermissionAttachmentInfo> getEffectivePermissions() {
-        return new HashSet<PermissionAttachmentInfo>(permissions.values());
+        Set<PermissionAttachmentInfo> result = new HashSet<PermissionAttachmentInfo>(permissions.values());
+
+        for (Map.Entry<String, Boolean> entry : defaultValues.entrySet()) {
+            if (!permissions.containsKey(entry.getKey())) {
+                result.add(new PermissionAttachmentInfo(parent, entry.getKey(), null, entry.getValue()));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The expanded permissions of an attachment, which keeps the expansion
+     * of every permission set in the attachment separately so that setting
+     * or unsetting one only expands that permission and its children again.
+     * <p>
+     * A permission reached from several permissions of the attachment takes
+     * the value from the one which comes last in the attachment, as when
+     * expanding all of them in order.
+     */
+    private final class AttachmentPermissions {
+        private final PermissionAttachment attachment;
+        private final Map<String, Expansion> expansions = new HashMap<String, Expansion>();
+        private final Map<String, List<Expansion>> sources = new HashMap<String, List<Expansion>>();
+        private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+        private long nextOrder = 0;
+
+        private AttachmentPermissions(@NotNull PermissionAttachment attachment) {
+            this.attachment = attachment;
+        }
+
+        /**
+         * Sets the value of a permission of the attachment and expands it
+         * again.
+         *
+         * @param name Lowercase name of the permission
+         * @param value New value of the permission, or null if it was unset
+         * @return Names of the expanded permissions which may have changed
+         */
+        @NotNull
+        private Set<String> update(@NotNull String name, @Nullable Boolean value) {
+            Expansion previous = expansions.remove(name);
+            Set<String> changed = new HashSet<String>();
+
+            if (previous != null) {
+                for (String child : previous.permissions.keySet()) {
+                    List<Expansion> list = sources.get(child);
+                    list.remove(previous);
+                    if (list.isEmpty()) {
+                        sources.remove(child);
+                    }
+                    changed.add(child);
+                }
+            }
+
+            if (value != null) {
+                Map<String, PermissionAttachmentInfo> children = new HashMap<String, PermissionAttachmentInfo>();
+                calculateChildPermissions(children, Collections.singletonMap(name, value), false, attachment);
+
+                // A permission which stays set keeps its place in the
+                // attachment, as in its map of values
+                Expansion expansion = new Expansion((previous != null) ? previous.order : nextOrder++, children);
+                expansions.put(name, expansion);
+                for (String child : children.keySet()) {
+                    List<Expansion> list = sources.get(child);
+                    if (list == null) {
+                        list = new ArrayList<Expansion>(1);
+                        sources.put(child, list);
+                    }
+                    list.add(expansion);
+                    changed.add(child);
+                }
+            }
+
+            for (String child : changed) {
+                List<Expansion> list = sources.get(child);
+                if (list == null) {
+                    permissions.remove(child);
+                    continue;
+                }
+
+                Expansion latest = list.get(0);
+                for (int i = 1; i < list.size(); i++) {
+                    if (list.get(i).order > latest.order) {
+                        latest = list.get(i);
+                    }
+                }
+                permissions.put(child, latest.permissions.get(child));
+            }
+
+            return changed;
+        }
+    }
+
+    private static final class Expansion {
+        private final long order;
+        private final Map<String, PermissionAttachmentInfo> permissions;
+
+        private Expansion(long order, @NotNull Map<String, PermissionAttachmentInfo> permissions) {
+            this.order = order;
+            this.permissions = permissions;
+        }
+    }
+
+    private static final class CompiledDefaults {
+        private final Map<String, Boolean> values;
+        private final PermissionTrie trie;
+
+        private CompiledDefaults(@NotNull Map<String, Boolean> values, @NotNull PermissionTrie trie) {
+            this.values = values;
+            this.trie = trie;
+        }
     }
 
     private static class RemoveAttachmentRunnable implements Runnable {
@@ -17,6 +17,7 @@ public class PermissionAttachment {
     private final Map<String, Boolean> permissions = new LinkedHashMap<String, Boolean>();
     private final Permissible permissible;
     private final Plugin plugin;
+    private String changedPermission;
 
     public PermissionAttachment(@NotNull Plugin plugin, @NotNull Permissible permissible) {
         if (plugin == null) {
@@ -91,8 +92,9 @@ public class PermissionAttachment {
      * @param value New value of the permission
      */
     public void setPermission(@NotNull String name, boolean value) {
-        permissions.put(name.toLowerCase(Locale.ROOT), value);
-        permissible.recalculatePermissions();
+        String lname = name.toLowerCase(Locale.ROOT);
+        permissions.put(lname, value);
+        recalculatePermissions(lname);
     }
 
     /**
@@ -114,8 +116,9 @@ public class PermissionAttachment {
      * @param name Name of the permission to remove
      */
     public void unsetPermission(@NotNull String name) {
-        permissions.remove(name.toLowerCase(Locale.ROOT));
-        permissible.recalculatePermissions();
+        String lname = name.toLowerCase(Locale.ROOT);
+        permissions.remove(lname);
+        recalculatePermissions(lname);
     }
 
     /**
@@ -130,6 +133,41 @@ public class PermissionAttachment {
         unsetPermission(perm.getName());
     }
 
+    /**
+     * Gets the value of a permission in this attachment.
+     *
+     * @param name Lowercase name of the permission
+     * @return Value of the permission, or null if it is not set
+     */
+    @Nullable
+    Boolean getPermissionValue(@NotNull String name) {
+        return permissions.get(name);
+    }
+
+    /**
+     * Gets the name of the only permission which has changed since the
+     * permissible last recalculated this attachment, if it is being
+     * recalculated because of a call to {@link #setPermission(String,
+     * boolean)} or {@link #unsetPermission(String)}.
+     *
+     * @return Lowercase name of the changed permission, or null if it is
+     *     not known which permissions have changed
+     */
+    @Nullable
+    String getChangedPermission() {
+        return changedPermission;
+    }
+
+    private void recalculatePermissions(@NotNull String changed) {
+        String previous = changedPermission;
+        changedPermission = changed;
+        try {
+            permissible.recalculatePermissions(this);
+        } finally {
+            changedPermission = previous;
+        }
+    }
+
     /**
      * Removes this attachment from its registered {@link Permissible}
      *
@@ -0,0 +1,217 @@
+package org.bukkit.permissions;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMetrics;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Optional instrumentation of permission checks.
+ * <p>
+ * When enabled, every check made through {@link PermissibleBase} is counted
+ * by permission node and by the plugin which made it. Permission tests of a
+ * {@link Command} are also recorded while enabled, in the {@link
+ * CommandMetrics} of its command map. Recording is disabled by default, in
+ * which case checks only pay for reading a single flag.
+ * <p>
+ * Attributing a check to a plugin walks the stack of the calling thread, so
+ * enabling the metrics noticeably slows down permission checks and should
+ * only be done while profiling.
+ */
+public final class PermissionMetrics {
+    static volatile boolean enabled = false;
+
+    private static final Map<String, Stats> permissions = new ConcurrentHashMap<String, Stats>();
+    private static final Map<String, Stats> plugins = new ConcurrentHashMap<String, Stats>();
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    // Name of the plugin providing each class, or an empty string if the
+    // class is not provided by a plugin
+    private static final ClassValue<String> pluginNames = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            try {
+                return JavaPlugin.getProvidingPlugin(type).getName();
+            } catch (IllegalArgumentException ex) {
+                return "";
+            }
+        }
+    };
+
+    private PermissionMetrics() {}
+
+    /**
+     * Gets whether permission checks are currently recorded.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether permission checks should be recorded.
+     * <p>
+     * Disabling the metrics keeps the values recorded so far.
+     *
+     * @param value true to record permission checks
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Discards all recorded values, apart from the permission tests of
+     * commands, which are kept with the other {@link CommandMetrics}.
+     */
+    public static void reset() {
+        permissions.clear();
+        plugins.clear();
+    }
+
+    /**
+     * Gets the recorded checks of each permission, by lowercase permission
+     * name.
+     *
+     * @return snapshot of the recorded checks
+     */
+    @NotNull
+    public static Map<String, Stats> getPermissionStats() {
+        return ImmutableMap.copyOf(permissions);
+    }
+
+    /**
+     * Gets the recorded checks made by each plugin, by plugin name.
+     * <p>
+     * Checks which could not be attributed to a plugin, such as those made
+     * by the server itself, are not included.
+     *
+     * @return snapshot of the recorded checks
+     */
+    @NotNull
+    public static Map<String, Stats> getPluginStats() {
+        return ImmutableMap.copyOf(plugins);
+    }
+
+    /**
+     * Records a permission check made by a {@link PermissibleBase}.
+     *
+     * @param name name of the checked permission
+     * @param result result of the check
+     * @param hit whether the result was found in the calculated permissions
+     *     of the permissible, rather than taken from the permission default
+     * @param start value of {@link System#nanoTime()} when the check started
+     */
+    static void recordPermission(@NotNull String name, boolean result, boolean hit, long start) {
+        long time = System.nanoTime() - start;
+
+        getStats(permissions, name.toLowerCase(Locale.ROOT)).record(result, hit, time);
+
+        String plugin = walker.walk(frames -> frames
+                .map(frame -> getPluginName(frame.getDeclaringClass()))
+                .filter(pluginName -> pluginName != null)
+                .findFirst()
+                .orElse(null));
+        if (plugin != null) {
+            getStats(plugins, plugin).record(result, hit, time);
+        }
+    }
+
+    @NotNull
+    private static Stats getStats(@NotNull Map<String, Stats> map, @NotNull String key) {
+        Stats stats = map.get(key);
+        if (stats == null) {
+            stats = map.computeIfAbsent(key, k -> new Stats());
+        }
+        return stats;
+    }
+
+    @Nullable
+    private static String getPluginName(@NotNull Class<?> clazz) {
+        String name;
+        try {
+            name = pluginNames.get(clazz);
+        } catch (IllegalStateException ex) {
+            // The plugin is still being constructed, which is not cached
+            return null;
+        }
+        return name.isEmpty() ? null : name;
+    }
+
+    /**
+     * Recorded values of a set of permission checks.
+     */
+    public static final class Stats {
+        private final LongAdder checks = new LongAdder();
+        private final LongAdder granted = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+        private Stats() {}
+
+        private void record(boolean result, boolean hit, long nanos) {
+            checks.increment();
+            if (result) {
+                granted.increment();
+            }
+            if (hit) {
+                hits.increment();
+            }
+            time.add(nanos);
+        }
+
+        /**
+         * Gets the number of checks.
+         *
+         * @return number of checks
+         */
+        public long getChecks() {
+            return checks.sum();
+        }
+
+        /**
+         * Gets the number of checks which were granted.
+         *
+         * @return number of granted checks
+         */
+        public long getGranted() {
+            return granted.sum();
+        }
+
+        /**
+         * Gets the number of checks answered from the calculated permissions
+         * of the permissible, without falling back to the default of the
+         * permission.
+         *
+         * @return number of hits
+         */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /**
+         * Gets the fraction of checks which were hits.
+         *
+         * @return hit rate between 0 and 1
+         * @see #getHits()
+         */
+        public double getHitRate() {
+            long count = getChecks();
+            return (count == 0) ? 0 : (double) getHits() / count;
+        }
+
+        /**
+         * Gets the total time spent in the checks, in nanoseconds.
+         *
+         * @return total time
+         */
+        public long getTotalTime() {
+            return time.sum();
+        }
+    }
+}
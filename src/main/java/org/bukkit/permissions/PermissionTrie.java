@@ -0,0 +1,355 @@
+package org.bukkit.permissions;
+
+import java.util.Locale;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable, case insensitive lookup structure for permission values,
+ * with one level for every dot separated segment of a permission name.
+ * <p>
+ * A name whose last segment is {@code *}, such as {@code plugin.*}, is also
+ * recorded as a wildcard for every permission below {@code plugin}, which
+ * lookups may optionally fall back to.
+ * <p>
+ * Lookups of names that only contain ASCII characters do not allocate.
+ */
+final class PermissionTrie {
+    /**
+     * Result of a lookup for a permission which is not set.
+     */
+    static final int UNSET = 0;
+    /**
+     * Result of a lookup for a permission which is set to false.
+     */
+    static final int FALSE = 1;
+    /**
+     * Result of a lookup for a permission which is set to true.
+     */
+    static final int TRUE = 2;
+    /**
+     * Flag added to the result of a lookup whose value comes from a
+     * wildcard instead of the permission itself.
+     */
+    static final int WILDCARD = 4;
+
+    static final PermissionTrie EMPTY = new PermissionTrie(new Node(null));
+
+    private final Node root;
+
+    private PermissionTrie(@NotNull Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles the given permission values into a trie.
+     *
+     * @param values permission values by name
+     * @return the compiled trie
+     */
+    @NotNull
+    static PermissionTrie compile(@NotNull Map<String, Boolean> values) {
+        return EMPTY.with(values);
+    }
+
+    /**
+     * Creates a trie with the given permission values changed.
+     * <p>
+     * This trie is not modified, and only the nodes on the path to each
+     * changed permission are copied, so the cost of a change does not depend
+     * on the number of other permissions in the trie.
+     *
+     * @param changes new permission values by name, where a null value
+     *     removes the permission
+     * @return the changed trie, or this trie if nothing changed
+     */
+    @NotNull
+    PermissionTrie with(@NotNull Map<String, Boolean> changes) {
+        // Nodes copied by this call are only reachable from its result, so
+        // they are changed in place if another permission touches them again
+        Object owner = new Object();
+        Node root = this.root;
+
+        for (Map.Entry<String, Boolean> entry : changes.entrySet()) {
+            String name = entry.getKey().toLowerCase(Locale.ROOT);
+            int value = (entry.getValue() == null) ? UNSET : entry.getValue() ? TRUE : FALSE;
+
+            root = update(root, name, 0, value, owner);
+        }
+
+        if (root == this.root) {
+            return this;
+        }
+        return (root == null) ? EMPTY : new PermissionTrie(root);
+    }
+
+    /**
+     * Sets the value of the permission below the given node.
+     *
+     * @param node node to start from, or null if there is none
+     * @param name lowercase name of the permission
+     * @param start start of the segment of the name below the node
+     * @param value new value of the permission
+     * @param owner owner of the nodes which may be changed in place
+     * @return the changed node, the same node if nothing changed, or null
+     *     if the node no longer holds anything
+     */
+    @Nullable
+    private static Node update(@Nullable Node node, @NotNull String name, int start, int value, @NotNull Object owner) {
+        int end = name.indexOf('.', start);
+        if (end == -1) {
+            end = name.length();
+        }
+
+        String segment = name.substring(start, end);
+        int hash = hash(segment, 0, segment.length());
+        int index = (node == null) ? -1 : node.indexOf(segment, hash);
+        Node child = (index == -1) ? null : node.children[index];
+        Node updated;
+        boolean wildcard = false;
+
+        if (end == name.length()) {
+            if (((child == null) ? UNSET : child.value) == value) {
+                return node;
+            }
+
+            updated = (child == null) ? new Node(owner) : child.editable(owner);
+            updated.value = (byte) value;
+            wildcard = segment.equals("*");
+        } else {
+            updated = update(child, name, end + 1, value, owner);
+            if (updated == child) {
+                return node;
+            }
+        }
+
+        if (updated != null && updated.isEmpty()) {
+            updated = null;
+        }
+
+        Node result = (node == null) ? new Node(owner) : node.editable(owner);
+        if (wildcard) {
+            result.wildcard = (byte) value;
+        }
+        if (updated == null) {
+            if (index != -1) {
+                result.remove(index);
+            }
+        } else if (index == -1) {
+            result.put(segment, hash, updated);
+        } else {
+            result.children[index] = updated;
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Looks up the value of the given permission.
+     *
+     * @param name name of the permission, in any case
+     * @param wildcards whether to fall back to wildcard values
+     * @return {@link #UNSET}, {@link #FALSE} or {@link #TRUE}, possibly
+     *     combined with {@link #WILDCARD}
+     */
+    int get(@NotNull String name, boolean wildcards) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 128) {
+                return find(name.toLowerCase(Locale.ROOT), wildcards);
+            }
+        }
+
+        return find(name, wildcards);
+    }
+
+    private int find(@NotNull String name, boolean wildcards) {
+        Node node = root;
+        int wildcard = (wildcards && root.wildcard != UNSET) ? (root.wildcard | WILDCARD) : UNSET;
+        int start = 0;
+        int length = name.length();
+        while (true) {
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            node = node.get(name, start, end);
+            if (node == null) {
+                return wildcard;
+            }
+            if (end == length) {
+                break;
+            }
+
+            if (wildcards && node.wildcard != UNSET) {
+                wildcard = node.wildcard | WILDCARD;
+            }
+            start = end + 1;
+        }
+
+        return (node.value != UNSET) ? node.value : wildcard;
+    }
+
+    private static int hash(@NotNull String name, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static char fold(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean regionEquals(@NotNull String key, @NotNull String name, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != fold(name.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private final Object owner;
+        private byte value = UNSET;
+        private byte wildcard = UNSET;
+        private String[] keys;
+        private int[] hashes;
+        private Node[] children;
+        private int size;
+        private int mask;
+
+        private Node(@Nullable Object owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Gets a node which may be changed by the given owner, which is
+         * this node if it was created by the owner or a copy otherwise.
+         */
+        @NotNull
+        private Node editable(@NotNull Object owner) {
+            if (this.owner == owner) {
+                return this;
+            }
+
+            Node copy = new Node(owner);
+            copy.value = value;
+            copy.wildcard = wildcard;
+            if (keys != null) {
+                copy.keys = keys.clone();
+                copy.hashes = hashes.clone();
+                copy.children = children.clone();
+            }
+            copy.size = size;
+            copy.mask = mask;
+            return copy;
+        }
+
+        private boolean isEmpty() {
+            return value == UNSET && wildcard == UNSET && size == 0;
+        }
+
+        private int indexOf(@NotNull String segment, int hash) {
+            if (keys == null) {
+                return -1;
+            }
+
+            int index = hash & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (hashes[index] == hash && key.equals(segment)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void put(@NotNull String segment, int hash, @NotNull Node child) {
+            if (keys == null || (size + 1) * 2 > keys.length) {
+                resize();
+            }
+
+            insert(segment, hash, child);
+            size++;
+        }
+
+        private void insert(@NotNull String segment, int hash, @NotNull Node child) {
+            int index = hash & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = segment;
+            hashes[index] = hash;
+            children[index] = child;
+        }
+
+        private void resize() {
+            String[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            Node[] oldChildren = children;
+            int capacity = (oldKeys == null) ? 2 : oldKeys.length * 2;
+
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            children = new Node[capacity];
+            mask = capacity - 1;
+
+            if (oldKeys != null) {
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        insert(oldKeys[i], oldHashes[i], oldChildren[i]);
+                    }
+                }
+            }
+        }
+
+        private void remove(int index) {
+            keys[index] = null;
+            children[index] = null;
+            size--;
+
+            // Shift back the following entries which can no longer be found
+            // past the removed one
+            int hole = index;
+            int next = (index + 1) & mask;
+            while (keys[next] != null) {
+                int home = hashes[next] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    hashes[hole] = hashes[next];
+                    children[hole] = children[next];
+                    keys[next] = null;
+                    children[next] = null;
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+        }
+
+        @Nullable
+        private Node get(@NotNull String name, int start, int end) {
+            if (keys == null) {
+                return null;
+            }
+
+            int hash = hash(name, start, end);
+            int index = hash & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (hashes[index] == hash && regionEquals(key, name, start, end)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
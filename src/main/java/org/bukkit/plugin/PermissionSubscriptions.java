@@ -0,0 +1,287 @@
+package org.bukkit.plugin;
+
+import com.google.common.collect.AbstractIterator;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.bukkit.permissions.Permissible;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Index of the {@link Permissible}s subscribed to each permission and to
+ * each set of default permissions.
+ * <p>
+ * Every subscribed permission name and every subscribed Permissible is given
+ * a small integer id, and the subscribers of a permission are kept as a bit
+ * set of Permissible ids, together with the reverse set of permission ids for
+ * each Permissible. A Permissible gives up its id as soon as it is no longer
+ * subscribed to anything, or once it has been garbage collected, and a
+ * permission gives up its id once nothing is subscribed to it.
+ * <p>
+ * All methods are synchronized, so subscribers may be looked up from any
+ * thread. The sets returned by this index are immutable snapshots, which are
+ * built once after the subscribers change and then shared by every lookup
+ * until they change again. Snapshots only hold weak references, and leave out
+ * Permissibles which have since been garbage collected.
+ */
+final class PermissionSubscriptions {
+    private final Map<String, Subscription> permissionIds = new HashMap<String, Subscription>();
+    private final List<Subscription> permissionSubscribers = new ArrayList<Subscription>();
+    private final BitSet freePermissionIds = new BitSet();
+    private final BitSet[] defaultSubscribers = {new BitSet(), new BitSet()};
+    private final Snapshot[] defaultSnapshots = new Snapshot[2];
+    private final Map<Permissible, Integer> permissibleIds = new WeakHashMap<Permissible, Integer>();
+    private final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+    private final BitSet freeIds = new BitSet();
+    private final ReferenceQueue<Permissible> collected = new ReferenceQueue<Permissible>();
+
+    synchronized void subscribe(@NotNull String permission, @NotNull Permissible permissible) {
+        expungeCollected();
+
+        Subscriber subscriber = getOrCreateSubscriber(permissible);
+        Subscription subscription = permissionIds.get(permission);
+        if (subscription == null) {
+            int newId = freePermissionIds.nextSetBit(0);
+            if (newId == -1) {
+                subscription = new Subscription(permission, permissionSubscribers.size());
+                permissionSubscribers.add(subscription);
+            } else {
+                freePermissionIds.clear(newId);
+                subscription = new Subscription(permission, newId);
+                permissionSubscribers.set(newId, subscription);
+            }
+            permissionIds.put(permission, subscription);
+        }
+
+        if (!subscription.subscribers.get(subscriber.id)) {
+            subscription.subscribers.set(subscriber.id);
+            subscription.snapshot = null;
+        }
+        subscriber.permissions.set(subscription.id);
+    }
+
+    synchronized void unsubscribe(@NotNull String permission, @NotNull Permissible permissible) {
+        expungeCollected();
+
+        Integer id = permissibleIds.get(permissible);
+        Subscription subscription = permissionIds.get(permission);
+        if (id == null || subscription == null) {
+            return;
+        }
+
+        Subscriber subscriber = subscribers.get(id);
+        subscriber.permissions.clear(subscription.id);
+        unsubscribe(subscription, id);
+        releaseIfUnused(subscriber);
+    }
+
+    @NotNull
+    synchronized Set<Permissible> getSubscribers(@NotNull String permission) {
+        Subscription subscription = permissionIds.get(permission);
+        if (subscription == null) {
+            return Snapshot.EMPTY;
+        }
+        if (subscription.snapshot == null) {
+            subscription.snapshot = snapshotOf(subscription.subscribers);
+        }
+        return subscription.snapshot;
+    }
+
+    synchronized void subscribeToDefaults(boolean op, @NotNull Permissible permissible) {
+        expungeCollected();
+
+        Subscriber subscriber = getOrCreateSubscriber(permissible);
+        setDefaultSubscriber(op ? 1 : 0, subscriber.id, true);
+    }
+
+    synchronized void unsubscribeFromDefaults(boolean op, @NotNull Permissible permissible) {
+        expungeCollected();
+
+        Integer id = permissibleIds.get(permissible);
+        if (id == null) {
+            return;
+        }
+
+        setDefaultSubscriber(op ? 1 : 0, id, false);
+        releaseIfUnused(subscribers.get(id));
+    }
+
+    @NotNull
+    synchronized Set<Permissible> getDefaultSubscribers(boolean op) {
+        int index = op ? 1 : 0;
+        if (defaultSnapshots[index] == null) {
+            defaultSnapshots[index] = snapshotOf(defaultSubscribers[index]);
+        }
+        return defaultSnapshots[index];
+    }
+
+    private void setDefaultSubscriber(int index, int id, boolean subscribed) {
+        if (defaultSubscribers[index].get(id) != subscribed) {
+            defaultSubscribers[index].set(id, subscribed);
+            defaultSnapshots[index] = null;
+        }
+    }
+
+    @NotNull
+    private Subscriber getOrCreateSubscriber(@NotNull Permissible permissible) {
+        Integer id = permissibleIds.get(permissible);
+        if (id != null) {
+            return subscribers.get(id);
+        }
+
+        int newId = freeIds.nextSetBit(0);
+        Subscriber subscriber;
+        if (newId == -1) {
+            subscriber = new Subscriber(permissible, subscribers.size(), collected);
+            subscribers.add(subscriber);
+        } else {
+            freeIds.clear(newId);
+            subscriber = new Subscriber(permissible, newId, collected);
+            subscribers.set(newId, subscriber);
+        }
+
+        permissibleIds.put(permissible, subscriber.id);
+        return subscriber;
+    }
+
+    /**
+     * Removes a Permissible id from the subscribers of a permission, and
+     * releases the id of the permission if it has no subscribers left.
+     */
+    private void unsubscribe(@NotNull Subscription subscription, int id) {
+        subscription.subscribers.clear(id);
+        subscription.snapshot = null;
+        if (subscription.subscribers.isEmpty()) {
+            permissionIds.remove(subscription.permission);
+            permissionSubscribers.set(subscription.id, null);
+            freePermissionIds.set(subscription.id);
+        }
+    }
+
+    private void releaseIfUnused(@NotNull Subscriber subscriber) {
+        if (subscriber.permissions.isEmpty() && !defaultSubscribers[0].get(subscriber.id) && !defaultSubscribers[1].get(subscriber.id)) {
+            Permissible permissible = subscriber.get();
+            if (permissible != null) {
+                permissibleIds.remove(permissible);
+            }
+            release(subscriber);
+        }
+    }
+
+    private void release(@NotNull Subscriber subscriber) {
+        if (subscribers.get(subscriber.id) != subscriber) {
+            return;
+        }
+
+        BitSet permissions = subscriber.permissions;
+        for (int i = permissions.nextSetBit(0); i >= 0; i = permissions.nextSetBit(i + 1)) {
+            unsubscribe(permissionSubscribers.get(i), subscriber.id);
+        }
+        setDefaultSubscriber(0, subscriber.id, false);
+        setDefaultSubscriber(1, subscriber.id, false);
+
+        // The reference is not cleared, as older snapshots may still hold it,
+        // and is ignored above if it is enqueued later on
+        subscribers.set(subscriber.id, null);
+        freeIds.set(subscriber.id);
+    }
+
+    /**
+     * Releases the ids of all Permissibles which have been garbage
+     * collected without unsubscribing.
+     */
+    private void expungeCollected() {
+        Subscriber subscriber;
+        while ((subscriber = (Subscriber) collected.poll()) != null) {
+            release(subscriber);
+        }
+    }
+
+    @NotNull
+    private Snapshot snapshotOf(@NotNull BitSet ids) {
+        if (ids.isEmpty()) {
+            return Snapshot.EMPTY;
+        }
+
+        Subscriber[] result = new Subscriber[ids.cardinality()];
+        int size = 0;
+        for (int i = ids.nextSetBit(0); i >= 0; i = ids.nextSetBit(i + 1)) {
+            result[size++] = subscribers.get(i);
+        }
+        return new Snapshot(result);
+    }
+
+    private static final class Subscription {
+        private final String permission;
+        private final int id;
+        private final BitSet subscribers = new BitSet();
+        private Snapshot snapshot;
+
+        private Subscription(@NotNull String permission, int id) {
+            this.permission = permission;
+            this.id = id;
+        }
+    }
+
+    private static final class Subscriber extends WeakReference<Permissible> {
+        private final int id;
+        private final BitSet permissions = new BitSet();
+
+        private Subscriber(@NotNull Permissible permissible, int id, @NotNull ReferenceQueue<Permissible> queue) {
+            super(permissible, queue);
+            this.id = id;
+        }
+    }
+
+    /**
+     * Immutable set of the subscribers of a permission or of a set of default
+     * permissions at one point in time.
+     */
+    private static final class Snapshot extends AbstractSet<Permissible> {
+        private static final Snapshot EMPTY = new Snapshot(new Subscriber[0]);
+
+        private final Subscriber[] subscribers;
+
+        private Snapshot(@NotNull Subscriber[] subscribers) {
+            this.subscribers = subscribers;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<Permissible> iterator() {
+            return new AbstractIterator<Permissible>() {
+                private int index;
+
+                @Override
+                protected Permissible computeNext() {
+                    while (index < subscribers.length) {
+                        Permissible permissible = subscribers[index++].get();
+                        if (permissible != null) {
+                            return permissible;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.get() != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+}
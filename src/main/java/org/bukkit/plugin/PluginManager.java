@@ -1,6 +1,10 @@
 package org.bukkit.plugin;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -226,6 +230,43 @@ public interface PluginManager {
     @NotNull
     public Set<Permission> getDefaultPermissions(boolean op);
 
+    /**
+     * Gets the values of the default permissions for the given op status,
+     * together with the values of all of their children, by lowercase
+     * permission name.
+     * <p>
+     * The returned map is shared by all {@link Permissible}s with the same
+     * op status and cannot be modified. Implementations may return the same
+     * map until the default permissions change.
+     *
+     * @param op Which set of default permissions to get
+     * @return The values of the default permissions
+     */
+    @NotNull
+    default Map<String, Boolean> getDefaultPermissionValues(boolean op) {
+        Map<String, Boolean> result = new HashMap<String, Boolean>();
+
+        for (Permission perm : getDefaultPermissions(op)) {
+            result.put(perm.getName().toLowerCase(Locale.ROOT), true);
+            putChildPermissionValues(result, perm.getChildren(), false);
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void putChildPermissionValues(@NotNull Map<String, Boolean> result, @NotNull Map<String, Boolean> children, boolean invert) {
+        for (Map.Entry<String, Boolean> entry : children.entrySet()) {
+            Permission perm = getPermission(entry.getKey());
+            boolean value = entry.getValue() ^ invert;
+
+            result.put(entry.getKey().toLowerCase(Locale.ROOT), value);
+
+            if (perm != null) {
+                putChildPermissionValues(result, perm.getChildren(), !value);
+            }
+        }
+    }
+
     /**
      * Recalculates the defaults for the given {@link Permission}.
      * <p>
@@ -260,6 +301,10 @@ public interface PluginManager {
     /**
      * Gets a set containing all subscribed {@link Permissible}s to the given
      * permission, by name
+     * <p>
+     * The returned set is an unmodifiable snapshot of the current
+     * subscriptions, and is not changed by later subscriptions, so it may
+     * be iterated over while permissions are recalculated.
      *
      * @param permission Permission to query for
      * @return Set containing all subscribed permissions
@@ -289,6 +334,10 @@ public interface PluginManager {
     /**
      * Gets a set containing all subscribed {@link Permissible}s to the given
      * default list, by op status
+     * <p>
+     * The returned set is an unmodifiable snapshot of the current
+     * subscriptions, and is not changed by later subscriptions, so it may
+     * be iterated over while permissions are recalculated.
      *
      * @param op Default list to query for
      * @return Set containing all subscribed permissions
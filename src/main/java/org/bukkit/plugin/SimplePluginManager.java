@@ -43,8 +43,9 @@ public final class SimplePluginManager implements PluginManager {
     private final SimpleCommandMap commandMap;
     private final Map<String, Permission> permissions = new HashMap<String, Permission>();
     private final Map<Boolean, Set<Permission>> defaultPerms = new LinkedHashMap<Boolean, Set<Permission>>();
-    private final Map<String, Map<Permissible, Boolean>> permSubs = new HashMap<String, Map<Permissible, Boolean>>();
-    private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new HashMap<Boolean, Map<Permissible, Boolean>>();
+    private final PermissionSubscriptions subscriptions = new PermissionSubscriptions();
+    private volatile Map<String, Boolean> opDefaultValues = null;
+    private volatile Map<String, Boolean> nonOpDefaultValues = null;
     private boolean useTimings = false;
 
     public SimplePluginManager(@NotNull Server instance, @NotNull SimpleCommandMap commandMap) {
@@ -550,6 +551,7 @@ public final class SimplePluginManager implements PluginManager {
             permissions.clear();
             defaultPerms.get(true).clear();
             defaultPerms.get(false).clear();
+            invalidateDefaultPermissionValues();
         }
     }
 
@@ -714,6 +716,29 @@ public final class SimplePluginManager implements PluginManager {
         return ImmutableSet.copyOf(defaultPerms.get(op));
     }
 
+    @Override
+    @NotNull
+    public Map<String, Boolean> getDefaultPermissionValues(boolean op) {
+        Map<String, Boolean> values = op ? opDefaultValues : nonOpDefaultValues;
+
+        if (values == null) {
+            values = PluginManager.super.getDefaultPermissionValues(op);
+
+            if (op) {
+                opDefaultValues = values;
+            } else {
+                nonOpDefaultValues = values;
+            }
+        }
+
+        return values;
+    }
+
+    private void invalidateDefaultPermissionValues() {
+        opDefaultValues = null;
+        nonOpDefaultValues = null;
+    }
+
     @Override
     public void removePermission(@NotNull Permission perm) {
         removePermission(perm.getName());
@@ -722,6 +747,7 @@ public final class SimplePluginManager implements PluginManager {
     @Override
     public void removePermission(@NotNull String name) {
         permissions.remove(name.toLowerCase(Locale.ROOT));
+        invalidateDefaultPermissionValues();
     }
 
     @Override
@@ -735,6 +761,8 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     private void calculatePermissionDefault(@NotNull Permission perm, boolean dirty) {
+        invalidateDefaultPermissionValues();
+
         if ((perm.getDefault() == PermissionDefault.OP) || (perm.getDefault() == PermissionDefault.TRUE)) {
             defaultPerms.get(true).add(perm);
             if (dirty) {
@@ -756,88 +784,41 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     private void dirtyPermissibles(boolean op) {
-        Set<Permissible> permissibles = getDefaultPermSubscriptions(op);
-
-        for (Permissible p : permissibles) {
+        for (Permissible p : getDefaultPermSubscriptions(op)) {
             p.recalculatePermissions();
         }
     }
 
     @Override
     public void subscribeToPermission(@NotNull String permission, @NotNull Permissible permissible) {
-        String name = permission.toLowerCase(Locale.ROOT);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            permSubs.put(name, map);
-        }
-
-        map.put(permissible, true);
+        subscriptions.subscribe(permission.toLowerCase(Locale.ROOT), permissible);
     }
 
     @Override
     public void unsubscribeFromPermission(@NotNull String permission, @NotNull Permissible permissible) {
-        String name = permission.toLowerCase(Locale.ROOT);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map != null) {
-            map.remove(permissible);
-
-            if (map.isEmpty()) {
-                permSubs.remove(name);
-            }
-        }
+        subscriptions.unsubscribe(permission.toLowerCase(Locale.ROOT), permissible);
     }
 
     @Override
     @NotNull
     public Set<Permissible> getPermissionSubscriptions(@NotNull String permission) {
-        String name = permission.toLowerCase(Locale.ROOT);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
-        }
+        return subscriptions.getSubscribers(permission.toLowerCase(Locale.ROOT));
     }
 
     @Override
     public void subscribeToDefaultPerms(boolean op, @NotNull Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            defSubs.put(op, map);
-        }
-
-        map.put(permissible, true);
+        subscriptions.subscribeToDefaults(op, permissible);
     }
 
     @Override
     public void unsubscribeFromDefaultPerms(boolean op, @NotNull Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map != null) {
-            map.remove(permissible);
-
-            if (map.isEmpty()) {
-                defSubs.remove(op);
-            }
-        }
+        subscriptions.unsubscribeFromDefaults(op, permissible);
     }
 
     @Override
     @NotNull
     public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
-        }
+        return subscriptions.getDefaultSubscribers(op);
     }
 
     @Override
@@ -0,0 +1,98 @@
+package org.bukkit.plugin.messaging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the plugin messages delivered to a listener registered with an
+ * {@link AsyncMessageDelivery}.
+ *
+ * @see PluginMessageListenerRegistration#getAsyncStats()
+ */
+public final class AsyncDeliveryStats {
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder pending = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder handleTime = new LongAdder();
+
+    AsyncDeliveryStats() {}
+
+    void recordQueued() {
+        pending.increment();
+    }
+
+    void recordDropped(boolean wasQueued) {
+        dropped.increment();
+        if (wasQueued) {
+            pending.decrement();
+        }
+    }
+
+    void recordDelivered(long waited, long handled, boolean success) {
+        pending.decrement();
+        delivered.increment();
+        if (!success) {
+            failed.increment();
+        }
+        waitTime.add(waited);
+        handleTime.add(handled);
+    }
+
+    /**
+     * Gets the number of messages passed to the listener.
+     *
+     * @return number of delivered messages
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * Gets the number of delivered messages for which the listener threw an
+     * exception.
+     *
+     * @return number of failed messages
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Gets the number of messages discarded because the queue of their
+     * player was full or the listener was unregistered.
+     *
+     * @return number of dropped messages
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of messages currently waiting to be delivered.
+     *
+     * @return number of pending messages
+     */
+    public long getPending() {
+        return pending.sum();
+    }
+
+    /**
+     * Gets the total time delivered messages spent waiting in a queue, in
+     * nanoseconds.
+     *
+     * @return total waiting time
+     */
+    public long getTotalWaitTime() {
+        return waitTime.sum();
+    }
+
+    /**
+     * Gets the total time spent in the listener, in nanoseconds.
+     *
+     * @return total handling time
+     */
+    public long getTotalHandleTime() {
+        return handleTime.sum();
+    }
+}
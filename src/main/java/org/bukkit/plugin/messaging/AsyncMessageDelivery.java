@@ -0,0 +1,142 @@
+package org.bukkit.plugin.messaging;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes how plugin messages are delivered to a listener registered with
+ * {@link Messenger#registerIncomingPluginChannel(org.bukkit.plugin.Plugin,
+ * String, PluginMessageListener, AsyncMessageDelivery)}.
+ * <p>
+ * Such a listener is called on an executor instead of the thread which
+ * received the message. Messages from the same player are delivered to the
+ * listener one at a time and in the order they were received, while
+ * messages from different players may be handled concurrently.
+ * <p>
+ * Every player has a queue of at most {@link #getCapacity()} messages
+ * waiting to be delivered to the listener. When a message is received while
+ * that queue is full, one message is discarded according to the {@link
+ * OverflowPolicy}.
+ */
+public final class AsyncMessageDelivery {
+    /**
+     * The default number of messages which may wait to be delivered for a
+     * single player.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    /**
+     * Creates a delivery on the shared plugin message executor, with the
+     * default capacity and the {@link OverflowPolicy#DROP_NEWEST} policy.
+     */
+    public AsyncMessageDelivery() {
+        this(null, DEFAULT_CAPACITY, OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Creates a delivery on the shared plugin message executor.
+     *
+     * @param capacity number of messages which may wait to be delivered for
+     *     a single player
+     * @param policy what to do when a message is received while the queue
+     *     of its player is full
+     */
+    public AsyncMessageDelivery(int capacity, @NotNull OverflowPolicy policy) {
+        this(null, capacity, policy);
+    }
+
+    /**
+     * Creates a delivery on the given executor.
+     * <p>
+     * The executor should not run tasks on the calling thread, and may be
+     * shared with other deliveries.
+     *
+     * @param executor executor to call the listener on, or null to use the
+     *     shared plugin message executor
+     * @param capacity number of messages which may wait to be delivered for
+     *     a single player
+     * @param policy what to do when a message is received while the queue
+     *     of its player is full
+     */
+    public AsyncMessageDelivery(@Nullable Executor executor, int capacity, @NotNull OverflowPolicy policy) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        Preconditions.checkArgument(policy != null, "Policy cannot be null");
+
+        this.executor = (executor == null) ? SharedExecutor.EXECUTOR : executor;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Gets the executor which the listener is called on.
+     *
+     * @return the executor
+     */
+    @NotNull
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the number of messages which may wait to be delivered for a
+     * single player.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets what happens when a message is received while the queue of its
+     * player is full.
+     *
+     * @return the overflow policy
+     */
+    @NotNull
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /**
+     * Decides which message is discarded when a message is received while
+     * the queue of its player is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discards the received message.
+         */
+        DROP_NEWEST,
+        /**
+         * Discards the oldest waiting message to make room for the received
+         * message.
+         */
+        DROP_OLDEST;
+    }
+
+    /**
+     * Holder of the shared executor, which is only started once a delivery
+     * uses it.
+     * <p>
+     * The pool is bounded so that a flood of messages from many players
+     * cannot run more listeners at once than half the processors, leaving
+     * the rest to the main thread. Virtual threads would not bound this, and
+     * on Java 21 a listener blocking inside a synchronized block still pins
+     * its carrier thread. Plugins whose listeners block on I/O can supply
+     * their own executor instead.
+     */
+    private static final class SharedExecutor {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            new ThreadFactoryBuilder().setNameFormat("Plugin Message Listener Thread - %d").setDaemon(true).build());
+    }
+}
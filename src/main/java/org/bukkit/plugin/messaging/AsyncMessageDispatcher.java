@@ -0,0 +1,180 @@
+package org.bukkit.plugin.messaging;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Delivers the messages of a single registration on the executor of its
+ * {@link AsyncMessageDelivery}.
+ * <p>
+ * Each player has a mailbox of waiting messages, which is drained by at
+ * most one task at a time so messages from a player stay in order. A
+ * mailbox is removed once it has been drained, so players who stop sending
+ * messages are not retained.
+ */
+final class AsyncMessageDispatcher {
+    /**
+     * Number of messages a task delivers before resubmitting itself, so one
+     * busy player cannot occupy an executor thread indefinitely.
+     */
+    private static final int MAX_BATCH = 64;
+
+    private final PluginMessageListenerRegistration registration;
+    private final AsyncMessageDelivery delivery;
+    private final AsyncDeliveryStats stats = new AsyncDeliveryStats();
+    private final ConcurrentMap<Player, Mailbox> mailboxes = new ConcurrentHashMap<Player, Mailbox>();
+    private volatile boolean closed;
+
+    AsyncMessageDispatcher(@NotNull PluginMessageListenerRegistration registration, @NotNull AsyncMessageDelivery delivery) {
+        this.registration = registration;
+        this.delivery = delivery;
+    }
+
+    @NotNull
+    AsyncMessageDelivery getDelivery() {
+        return delivery;
+    }
+
+    @NotNull
+    AsyncDeliveryStats getStats() {
+        return stats;
+    }
+
+    void dispatch(@NotNull Player source, @NotNull String channel, @NotNull byte[] message) {
+        if (closed) {
+            stats.recordDropped(false);
+            return;
+        }
+
+        PendingMessage pending = new PendingMessage(channel, message, System.nanoTime());
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(source, Mailbox::new);
+            boolean submit;
+            synchronized (mailbox) {
+                if (mailbox.removed) {
+                    // Lost a race with the draining task, which removed this mailbox
+                    continue;
+                }
+
+                if (mailbox.queue.size() >= delivery.getCapacity()) {
+                    if (delivery.getOverflowPolicy() == AsyncMessageDelivery.OverflowPolicy.DROP_NEWEST) {
+                        stats.recordDropped(false);
+                        return;
+                    }
+                    mailbox.queue.poll();
+                    stats.recordDropped(true);
+                }
+
+                mailbox.queue.add(pending);
+                stats.recordQueued();
+                submit = !mailbox.scheduled;
+                mailbox.scheduled = true;
+            }
+
+            if (submit) {
+                submit(mailbox);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Stops delivering messages, discarding those which are still waiting.
+     */
+    void close() {
+        closed = true;
+    }
+
+    private void submit(@NotNull Mailbox mailbox) {
+        try {
+            delivery.getExecutor().execute(mailbox);
+        } catch (RejectedExecutionException ex) {
+            synchronized (mailbox) {
+                discard(mailbox);
+            }
+            StandardMessenger.logListenerException(registration, ex);
+        }
+    }
+
+    /**
+     * Discards the waiting messages of a mailbox and removes it. Must be
+     * called while holding the lock of the mailbox.
+     */
+    private void discard(@NotNull Mailbox mailbox) {
+        for (int i = mailbox.queue.size(); i > 0; i--) {
+            stats.recordDropped(true);
+        }
+        mailbox.queue.clear();
+        mailbox.scheduled = false;
+        mailbox.removed = true;
+        mailboxes.remove(mailbox.player, mailbox);
+    }
+
+    private final class Mailbox implements Runnable {
+        private final Player player;
+        private final ArrayDeque<PendingMessage> queue = new ArrayDeque<PendingMessage>();
+        private boolean scheduled;
+        private boolean removed;
+
+        private Mailbox(@NotNull Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_BATCH; i++) {
+                PendingMessage pending;
+                synchronized (this) {
+                    // The plugin may have been disabled since the message was
+                    // queued, before the registration was closed
+                    if (closed || !registration.getPlugin().isEnabled()) {
+                        discard(this);
+                        return;
+                    }
+
+                    pending = queue.poll();
+                    if (pending == null) {
+                        scheduled = false;
+                        removed = true;
+                        mailboxes.remove(player, this);
+                        return;
+                    }
+                }
+
+                deliver(pending);
+            }
+
+            submit(this);
+        }
+
+        private void deliver(@NotNull PendingMessage pending) {
+            long start = System.nanoTime();
+            boolean success = true;
+            try {
+                registration.getListener().onPluginMessageReceived(pending.channel, player, pending.message);
+            } catch (Throwable t) {
+                success = false;
+                StandardMessenger.logListenerException(registration, t);
+            }
+
+            long end = System.nanoTime();
+            stats.recordDelivered(start - pending.received, end - start, success);
+        }
+    }
+
+    private static final class PendingMessage {
+        private final String channel;
+        private final byte[] message;
+        private final long received;
+
+        private PendingMessage(@NotNull String channel, @NotNull byte[] message, long received) {
+            this.channel = channel;
+            this.message = message;
+            this.received = received;
+        }
+    }
+}
@@ -4,7 +4,11 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -85,6 +89,32 @@ public interface Messenger {
     @NotNull
     public PluginMessageListenerRegistration registerIncomingPluginChannel(@NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener);
 
+    /**
+     * Registers the specific plugin for listening on the requested incoming
+     * plugin channel, delivering its plugin messages to the listener
+     * asynchronously.
+     * <p>
+     * The listener is called on the executor of the given delivery rather
+     * than on the thread which received the message, and must therefore be
+     * thread safe and must not use the API of the server without
+     * synchronizing with the main thread. Messages are always passed to it
+     * as byte arrays, which may be shared with other asynchronous listeners
+     * and must not be modified.
+     *
+     * @param plugin Plugin that wishes to register to this channel.
+     * @param channel Channel to register.
+     * @param listener Listener to receive messages on.
+     * @param delivery How messages are delivered to the listener.
+     * @return The resulting registration that was made as a result of this
+     *     method.
+     * @throws IllegalArgumentException Thrown if plugin, channel, listener
+     *     or delivery is null, or the listener is already registered for
+     *     this channel.
+     * @see AsyncMessageDelivery
+     */
+    @NotNull
+    public PluginMessageListenerRegistration registerIncomingPluginChannel(@NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener, @NotNull AsyncMessageDelivery delivery);
+
     /**
      * Unregisters the specific plugin's listener from listening on the
      * requested incoming plugin channel, no longer allowing it to act upon
@@ -231,4 +261,120 @@ public interface Messenger {
      * @param message Raw payload of the message.
      */
     public void dispatchIncomingMessage(@NotNull Player source, @NotNull String channel, @NotNull byte[] message);
+
+    /**
+     * Dispatches the specified incoming message to any registered listeners,
+     * consisting of the remaining bytes of the given buffer.
+     * <p>
+     * Each listener is given its own read-only view of the buffer, which is
+     * only valid during the dispatch. The position of the given buffer is
+     * left unchanged. The default implementation copies the bytes and
+     * passes them to {@link #dispatchIncomingMessage(Player, String,
+     * byte[])}.
+     *
+     * @param source Source of the message.
+     * @param channel Channel that the message was sent by.
+     * @param message Raw payload of the message.
+     */
+    public default void dispatchIncomingMessage(@NotNull Player source, @NotNull String channel, @NotNull ByteBuffer message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        dispatchIncomingMessage(source, channel, bytes);
+    }
+
+    /**
+     * Queues a Plugin Message to be sent to the given recipient on the next
+     * flush.
+     * <p>
+     * Messages queued for the same recipient and channel are sent together
+     * and in order. The registration of the source plugin for the channel
+     * is checked once per batch when it is flushed, and messages of plugins
+     * which are no longer enabled or registered are dropped at that point.
+     * <p>
+     * The message array must not be modified after it has been queued.
+     * <p>
+     * The default implementation sends the message immediately.
+     *
+     * @param source The plugin that sent this message.
+     * @param recipient The recipient of this message.
+     * @param channel The channel to send this message on.
+     * @param message The raw message to send.
+     * @throws IllegalArgumentException Thrown if source, recipient, channel
+     *     or message is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNameTooLongException Thrown if the channel name is too
+     *     long.
+     * @see #flushQueuedMessages()
+     */
+    public default void queuePluginMessage(@NotNull Plugin source, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @NotNull byte[] message) {
+        queuePluginMessage(source, recipient, channel, null, message);
+    }
+
+    /**
+     * Queues a Plugin Message to be sent to the given recipient on the next
+     * flush, replacing any message queued by the same plugin for the same
+     * recipient and channel with an equal key.
+     * <p>
+     * This is intended for messages which synchronize state, where only the
+     * latest value needs to be sent. A replacing message takes the place of
+     * the message it replaces in the batch. A null key never replaces
+     * anything.
+     * <p>
+     * The default implementation sends the message immediately, so nothing
+     * is replaced.
+     *
+     * @param source The plugin that sent this message.
+     * @param recipient The recipient of this message.
+     * @param channel The channel to send this message on.
+     * @param key Key identifying the state which this message replaces, or
+     *     null.
+     * @param message The raw message to send.
+     * @throws IllegalArgumentException Thrown if source, recipient, channel
+     *     or message is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNameTooLongException Thrown if the channel name is too
+     *     long.
+     * @see #queuePluginMessage(Plugin, PluginMessageRecipient, String,
+     *     byte[])
+     */
+    public default void queuePluginMessage(@NotNull Plugin source, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @Nullable Object key, @NotNull byte[] message) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+
+        recipient.sendPluginMessage(source, channel, message);
+    }
+
+    /**
+     * Sends all queued Plugin Messages.
+     * <p>
+     * This is called by the server once per tick, and may also be called by
+     * plugins which need their queued messages to be sent immediately.
+     * Exceptions thrown while sending a message are logged to the logger of
+     * its source plugin.
+     * <p>
+     * The default implementation does nothing, as it does not queue
+     * messages.
+     */
+    public default void flushQueuedMessages() {
+    }
+
+    /**
+     * Gets the counts of the queued Plugin Messages sent on each outgoing
+     * channel, by channel name.
+     *
+     * <p>
+     * The default implementation returns an empty map, as it does not queue
+     * messages.
+     *
+     * @return snapshot of the counts of each channel
+     */
+    @NotNull
+    public default Map<String, PluginChannelStats> getOutgoingChannelStats() {
+        return Collections.emptyMap();
+    }
 }
@@ -0,0 +1,229 @@
+package org.bukkit.plugin.messaging;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Plugin messages queued by a {@link StandardMessenger}, grouped into one
+ * batch per recipient and channel until they are flushed.
+ * <p>
+ * Queueing a message only locks its own batch, and batches are flushed in
+ * the order in which they were started through a lock free queue. Flushing
+ * checks the registration of each source plugin once per batch rather than
+ * once per message, and then sends the messages without validating them
+ * again.
+ */
+final class OutgoingMessageQueue {
+    private final Map<String, PluginChannelStats> stats = new ConcurrentHashMap<String, PluginChannelStats>();
+    private final ConcurrentMap<BatchKey, Batch> pending = new ConcurrentHashMap<BatchKey, Batch>();
+    private final Queue<Batch> started = new ConcurrentLinkedQueue<Batch>();
+
+    /**
+     * Queues a message, validating the channel name when it starts a new
+     * batch, as a channel with a batch has already been validated.
+     */
+    @SuppressWarnings("deprecation")
+    void queue(@NotNull Plugin source, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @Nullable Object key, @NotNull byte[] message) {
+        BatchKey batchKey = new BatchKey(recipient, channel);
+        while (true) {
+            Batch batch = pending.get(batchKey);
+            if (batch == null) {
+                StandardMessenger.validateChannel(channel);
+
+                batch = pending.computeIfAbsent(batchKey, k -> {
+                    Batch created = new Batch(k);
+                    started.add(created);
+                    return created;
+                });
+            }
+
+            synchronized (batch) {
+                if (batch.flushed) {
+                    // Flushed since it was looked up, so start a new batch
+                    continue;
+                }
+                if (batch.add(source, key, message)) {
+                    getStats(channel).recordCoalesced();
+                }
+                return;
+            }
+        }
+    }
+
+    void flush(@NotNull Messenger messenger) {
+        Batch batch;
+        while ((batch = started.poll()) != null) {
+            synchronized (batch) {
+                batch.flushed = true;
+            }
+            pending.remove(batch.key, batch);
+
+            if (!batch.messages.isEmpty()) {
+                send(messenger, batch.key.recipient, batch.key.channel, batch);
+            }
+        }
+    }
+
+    @NotNull
+    Map<String, PluginChannelStats> getStats() {
+        return ImmutableMap.copyOf(stats);
+    }
+
+    private void send(@NotNull Messenger messenger, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @NotNull Batch batch) {
+        PluginChannelStats channelStats = getStats(channel);
+        channelStats.recordBatch();
+
+        Plugin accepted = null;
+        Plugin rejected = null;
+        for (QueuedMessage queued : batch.messages) {
+            Plugin source = queued.source;
+            if (source == rejected) {
+                continue;
+            }
+            if (source != accepted) {
+                // Plugins may have been disabled or unregistered since queueing,
+                // the channel name and message size were validated when queued
+                if (!source.isEnabled() || !messenger.isOutgoingChannelRegistered(source, channel)) {
+                    rejected = source;
+                    continue;
+                }
+                accepted = source;
+            }
+
+            try {
+                recipient.sendValidatedPluginMessage(source, channel, queued.message);
+                channelStats.recordMessage(queued.message.length);
+            } catch (Throwable t) {
+                source.getLogger().log(Level.WARNING,
+                    String.format("Plugin %s generated an exception whilst sending a queued plugin message",
+                        source.getDescription().getFullName()
+                    ), t);
+            }
+        }
+    }
+
+    @NotNull
+    private PluginChannelStats getStats(@NotNull String channel) {
+        PluginChannelStats channelStats = stats.get(channel);
+        if (channelStats == null) {
+            channelStats = stats.computeIfAbsent(channel, k -> new PluginChannelStats());
+        }
+        return channelStats;
+    }
+
+    private static final class Batch {
+        private final BatchKey key;
+        private final List<QueuedMessage> messages = new ArrayList<QueuedMessage>(4);
+        private Map<CoalesceKey, Integer> keys;
+        /**
+         * Whether this batch has been taken by a flush, after which no more
+         * messages may be added to it.
+         */
+        private boolean flushed;
+
+        private Batch(@NotNull BatchKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a message to this batch, replacing the queued message of the
+         * same plugin with the same key if there is one.
+         *
+         * @return true if a queued message was replaced
+         */
+        private boolean add(@NotNull Plugin source, @Nullable Object key, @NotNull byte[] message) {
+            QueuedMessage queued = new QueuedMessage(source, message);
+            if (key == null) {
+                messages.add(queued);
+                return false;
+            }
+
+            if (keys == null) {
+                keys = new HashMap<CoalesceKey, Integer>();
+            }
+            Integer index = keys.putIfAbsent(new CoalesceKey(source, key), messages.size());
+            if (index == null) {
+                messages.add(queued);
+                return false;
+            }
+
+            messages.set(index, queued);
+            return true;
+        }
+    }
+
+    private static final class QueuedMessage {
+        private final Plugin source;
+        private final byte[] message;
+
+        private QueuedMessage(@NotNull Plugin source, @NotNull byte[] message) {
+            this.source = source;
+            this.message = message;
+        }
+    }
+
+    private static final class BatchKey {
+        private final PluginMessageRecipient recipient;
+        private final String channel;
+
+        private BatchKey(@NotNull PluginMessageRecipient recipient, @NotNull String channel) {
+            this.recipient = recipient;
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) obj;
+            return recipient.equals(other.recipient) && channel.equals(other.channel);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * recipient.hashCode() + channel.hashCode();
+        }
+    }
+
+    private static final class CoalesceKey {
+        private final Plugin source;
+        private final Object key;
+
+        private CoalesceKey(@NotNull Plugin source, @NotNull Object key) {
+            this.source = source;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CoalesceKey)) {
+                return false;
+            }
+            CoalesceKey other = (CoalesceKey) obj;
+            return source.equals(other.source) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + key.hashCode();
+        }
+    }
+}
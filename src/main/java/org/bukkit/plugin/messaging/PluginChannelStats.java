@@ -0,0 +1,69 @@
+package org.bukkit.plugin.messaging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the plugin messages sent through a {@link Messenger} on a
+ * single channel.
+ *
+ * @see Messenger#getOutgoingChannelStats()
+ */
+public final class PluginChannelStats {
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    PluginChannelStats() {}
+
+    void recordMessage(int length) {
+        messages.increment();
+        bytes.add(length);
+    }
+
+    void recordBatch() {
+        batches.increment();
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * Gets the number of messages sent.
+     *
+     * @return number of messages
+     */
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * Gets the total size of the messages sent, in bytes.
+     *
+     * @return number of bytes
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Gets the number of batches flushed, where a batch is the set of
+     * messages queued for a single recipient between two flushes.
+     *
+     * @return number of batches
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Gets the number of queued messages which were replaced by a later
+     * message with the same key before being sent.
+     *
+     * @return number of coalesced messages
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+}
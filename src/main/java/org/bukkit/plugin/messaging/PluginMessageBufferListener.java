@@ -0,0 +1,34 @@
+package org.bukkit.plugin.messaging;
+
+import java.nio.ByteBuffer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link PluginMessageListener} which reads messages directly from a
+ * buffer, so that messages dispatched as a buffer are not copied.
+ * <p>
+ * Messages dispatched as a byte array are wrapped into a buffer without
+ * copying them.
+ */
+public interface PluginMessageBufferListener extends PluginMessageListener {
+
+    /**
+     * A method that will be thrown when a PluginMessageSource sends a plugin
+     * message on a registered channel.
+     * <p>
+     * The buffer is read-only, may be direct, and may only be used during
+     * this call. Its position and limit may be changed freely.
+     *
+     * @param channel Channel that the message was sent through.
+     * @param player Source of the message.
+     * @param message The raw message that was sent.
+     */
+    @Override
+    public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, @NotNull ByteBuffer message);
+
+    @Override
+    public default void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, @NotNull byte[] message) {
+        onPluginMessageReceived(channel, player, ByteBuffer.wrap(message).asReadOnlyBuffer());
+    }
+}
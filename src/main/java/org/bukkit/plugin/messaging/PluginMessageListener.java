@@ -1,5 +1,6 @@
 package org.bukkit.plugin.messaging;
 
+import java.nio.ByteBuffer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
@@ -18,4 +19,25 @@ public interface PluginMessageListener {
      * @param message The raw message that was sent.
      */
     public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, @NotNull byte[] message);
+
+    /**
+     * A method that will be thrown when a PluginMessageSource sends a plugin
+     * message on a registered channel, if the message is dispatched as a
+     * buffer.
+     * <p>
+     * The buffer is read-only and may only be used during this call. The
+     * default implementation copies its remaining bytes and passes them to
+     * {@link #onPluginMessageReceived(String, Player, byte[])}; listeners
+     * which can read the buffer directly should implement {@link
+     * PluginMessageBufferListener} instead.
+     *
+     * @param channel Channel that the message was sent through.
+     * @param player Source of the message.
+     * @param message The raw message that was sent.
+     */
+    public default void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, @NotNull ByteBuffer message) {
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        onPluginMessageReceived(channel, player, bytes);
+    }
 }
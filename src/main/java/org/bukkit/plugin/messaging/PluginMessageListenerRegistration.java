@@ -2,6 +2,7 @@ package org.bukkit.plugin.messaging;
 
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Contains information about a {@link Plugin}s registration to a plugin
@@ -12,8 +13,13 @@ public final class PluginMessageListenerRegistration {
     private final Plugin plugin;
     private final String channel;
     private final PluginMessageListener listener;
+    private final AsyncMessageDispatcher asyncDispatcher;
 
     public PluginMessageListenerRegistration(@NotNull Messenger messenger, @NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener) {
+        this(messenger, plugin, channel, listener, null);
+    }
+
+    public PluginMessageListenerRegistration(@NotNull Messenger messenger, @NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener, @Nullable AsyncMessageDelivery asyncDelivery) {
         if (messenger == null) {
             throw new IllegalArgumentException("Messenger cannot be null!");
         }
@@ -31,6 +37,7 @@ public final class PluginMessageListenerRegistration {
         this.plugin = plugin;
         this.channel = channel;
         this.listener = listener;
+        this.asyncDispatcher = (asyncDelivery == null) ? null : new AsyncMessageDispatcher(this, asyncDelivery);
     }
 
     /**
@@ -63,6 +70,45 @@ public final class PluginMessageListenerRegistration {
         return plugin;
     }
 
+    /**
+     * Checks if messages are delivered to the listener asynchronously.
+     *
+     * @return True if this registration has an asynchronous delivery.
+     * @see #getAsyncDelivery()
+     */
+    public boolean isAsync() {
+        return asyncDispatcher != null;
+    }
+
+    /**
+     * Gets how messages are delivered to the listener, if they are
+     * delivered asynchronously.
+     *
+     * @return Asynchronous delivery, or null if the listener is called on
+     *     the thread which received the message.
+     */
+    @Nullable
+    public AsyncMessageDelivery getAsyncDelivery() {
+        return (asyncDispatcher == null) ? null : asyncDispatcher.getDelivery();
+    }
+
+    /**
+     * Gets the counts of the messages delivered asynchronously to the
+     * listener.
+     *
+     * @return Delivery counts, or null if the listener is not called
+     *     asynchronously.
+     */
+    @Nullable
+    public AsyncDeliveryStats getAsyncStats() {
+        return (asyncDispatcher == null) ? null : asyncDispatcher.getStats();
+    }
+
+    @Nullable
+    AsyncMessageDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
+
     /**
      * Checks if this registration is still valid.
      *
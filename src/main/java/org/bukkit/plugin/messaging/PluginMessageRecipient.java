@@ -1,5 +1,6 @@
 package org.bukkit.plugin.messaging;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
@@ -29,6 +30,60 @@ public interface PluginMessageRecipient {
      */
     public void sendPluginMessage(@NotNull Plugin source, @NotNull String channel, @NotNull byte[] message);
 
+    /**
+     * Sends this recipient a Plugin Message on the specified outgoing
+     * channel, consisting of the remaining bytes of the given buffer.
+     * <p>
+     * The buffer is only read during this call and its position is left
+     * unchanged, so it may be sent to several recipients and reused
+     * afterwards, for example through a {@link PluginMessageWriter}. The
+     * default implementation copies the bytes and passes them to {@link
+     * #sendPluginMessage(Plugin, String, byte[])}.
+     * <p>
+     * The message may not be larger than {@link Messenger#MAX_MESSAGE_SIZE}
+     * bytes, and the plugin must be registered to send messages on the
+     * specified channel.
+     *
+     * @param source The plugin that sent this message.
+     * @param channel The channel to send this message on.
+     * @param message The raw message to send.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, channel or message
+     *     is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public default void sendPluginMessage(@NotNull Plugin source, @NotNull String channel, @NotNull ByteBuffer message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        sendPluginMessage(source, channel, bytes);
+    }
+
+    /**
+     * Sends this recipient a Plugin Message which has already been
+     * validated, such as by {@link StandardMessenger#validatePluginMessage(
+     * Messenger, Plugin, String, byte[])}.
+     * <p>
+     * This is used by {@link Messenger#flushQueuedMessages()}, which checks
+     * the messages it sends once per batch. Implementations may override it
+     * to skip validating every message again, and the default
+     * implementation passes the message to {@link
+     * #sendPluginMessage(Plugin, String, byte[])}.
+     *
+     * @param source The plugin that sent this message.
+     * @param channel The channel to send this message on.
+     * @param message The raw message to send.
+     */
+    public default void sendValidatedPluginMessage(@NotNull Plugin source, @NotNull String channel, @NotNull byte[] message) {
+        sendPluginMessage(source, channel, message);
+    }
+
     /**
      * Gets a set containing all the Plugin Channels that this client is
      * listening on.
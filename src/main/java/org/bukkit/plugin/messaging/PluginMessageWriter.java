@@ -0,0 +1,313 @@
+package org.bukkit.plugin.messaging;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A reusable buffer for building plugin messages without allocating a new
+ * array for every message.
+ * <p>
+ * Writers are pooled per thread. A writer is obtained with {@link
+ * #obtain()}, filled using the write methods, sent with {@link
+ * #send(PluginMessageRecipient, Plugin, String)} or read through {@link
+ * #buffer()}, and must then be returned to the pool by closing it:
+ * <pre>
+ * try (PluginMessageWriter writer = PluginMessageWriter.obtain()) {
+ *     writer.writeUTF("Connect").writeUTF("lobby");
+ *     writer.send(player, plugin, "BungeeCord");
+ * }
+ * </pre>
+ * Multi-byte values are written in big-endian order and strings are written
+ * in the format of {@link java.io.DataOutput#writeUTF(String)}, so that
+ * messages can be read with a {@link java.io.DataInput}.
+ * <p>
+ * A writer may only be used by the thread which obtained it, and none of
+ * its buffers may be used after it has been closed.
+ */
+public final class PluginMessageWriter implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * Writers whose buffer grew larger than this are shrunk when they are
+     * returned to the pool, so that every thread does not keep a buffer of
+     * the largest message it ever sent.
+     */
+    private static final int RETAINED_CAPACITY = 8192;
+    private static final ThreadLocal<PluginMessageWriter> pool = ThreadLocal.withInitial(PluginMessageWriter::new);
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private boolean inUse;
+
+    private PluginMessageWriter() {}
+
+    /**
+     * Obtains an empty writer from the pool of the current thread.
+     * <p>
+     * If the pooled writer of this thread is already in use, a new writer
+     * is created instead.
+     *
+     * @return an empty writer
+     */
+    @NotNull
+    public static PluginMessageWriter obtain() {
+        PluginMessageWriter writer = pool.get();
+        if (writer.inUse) {
+            writer = new PluginMessageWriter();
+        }
+
+        writer.inUse = true;
+        writer.buffer.clear();
+        return writer;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value the byte to write, only the lowest 8 bits are used
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeByte(int value) {
+        ensureRemaining(1);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     *
+     * @param value the boolean to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a short as two bytes.
+     *
+     * @param value the short to write, only the lowest 16 bits are used
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeShort(int value) {
+        ensureRemaining(2);
+        buffer.putShort((short) value);
+        return this;
+    }
+
+    /**
+     * Writes an int as four bytes.
+     *
+     * @param value the int to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeInt(int value) {
+        ensureRemaining(4);
+        buffer.putInt(value);
+        return this;
+    }
+
+    /**
+     * Writes a long as eight bytes.
+     *
+     * @param value the long to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeLong(long value) {
+        ensureRemaining(8);
+        buffer.putLong(value);
+        return this;
+    }
+
+    /**
+     * Writes a float as four bytes.
+     *
+     * @param value the float to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeFloat(float value) {
+        ensureRemaining(4);
+        buffer.putFloat(value);
+        return this;
+    }
+
+    /**
+     * Writes a double as eight bytes.
+     *
+     * @param value the double to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeDouble(double value) {
+        ensureRemaining(8);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    /**
+     * Writes all bytes of the given array.
+     *
+     * @param bytes the bytes to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeBytes(@NotNull byte[] bytes) {
+        Preconditions.checkArgument(bytes != null, "Bytes cannot be null");
+
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer, without changing its
+     * position.
+     *
+     * @param bytes the bytes to write
+     * @return this writer
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeBytes(@NotNull ByteBuffer bytes) {
+        Preconditions.checkArgument(bytes != null, "Bytes cannot be null");
+
+        ensureRemaining(bytes.remaining());
+        buffer.put(bytes.duplicate());
+        return this;
+    }
+
+    /**
+     * Writes a string as its length in two bytes followed by its modified
+     * UTF-8 encoding, as done by {@link java.io.DataOutput#writeUTF(String)}.
+     *
+     * @param value the string to write
+     * @return this writer
+     * @throws IllegalArgumentException if the encoded string is longer than
+     *     65535 bytes
+     * @throws MessageTooLargeException if the message would become too large
+     */
+    @NotNull
+    public PluginMessageWriter writeUTF(@NotNull String value) {
+        Preconditions.checkArgument(value != null, "String cannot be null");
+
+        int length = value.length();
+        int encoded = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                encoded += 2;
+            } else if (c >= 0x80 || c == 0) {
+                encoded++;
+            }
+        }
+        Preconditions.checkArgument(encoded <= 0xFFFF, "Encoded string too long: %s bytes", encoded);
+
+        ensureRemaining(2 + encoded);
+        buffer.putShort((short) encoded);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (c >= 0x80 || c == 0) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                buffer.put((byte) c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return size of the message
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Gets a read-only view of the bytes written so far.
+     * <p>
+     * The view shares the memory of this writer and is only valid until the
+     * writer is closed.
+     *
+     * @return a buffer of the message
+     */
+    @NotNull
+    public ByteBuffer buffer() {
+        return buffer.duplicate().flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the bytes written so far into a new array.
+     *
+     * @return the message
+     */
+    @NotNull
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Sends the bytes written so far to the given recipient.
+     *
+     * @param recipient the recipient of the message
+     * @param source the plugin that sent the message
+     * @param channel the channel to send the message on
+     * @see PluginMessageRecipient#sendPluginMessage(Plugin, String,
+     *     ByteBuffer)
+     */
+    public void send(@NotNull PluginMessageRecipient recipient, @NotNull Plugin source, @NotNull String channel) {
+        Preconditions.checkArgument(recipient != null, "Recipient cannot be null");
+
+        recipient.sendPluginMessage(source, channel, buffer());
+    }
+
+    /**
+     * Returns this writer to the pool of its thread.
+     */
+    @Override
+    public void close() {
+        if (buffer.capacity() > RETAINED_CAPACITY) {
+            buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        buffer.clear();
+        inUse = false;
+    }
+
+    private void ensureRemaining(int length) {
+        int required = buffer.position() + length;
+        if (required > Messenger.MAX_MESSAGE_SIZE || required < 0) {
+            throw new MessageTooLargeException(required);
+        }
+        if (required <= buffer.capacity()) {
+            return;
+        }
+
+        int capacity = (int) Math.min(Math.max((long) buffer.capacity() * 2, required), Messenger.MAX_MESSAGE_SIZE);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
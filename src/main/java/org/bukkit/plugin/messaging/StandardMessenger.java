@@ -5,7 +5,9 @@ import com.google.common.collect.ImmutableSet.Builder;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -19,6 +21,13 @@ public class StandardMessenger implements Messenger {
     private final Map<Plugin, Set<String>> outgoingByPlugin = new HashMap<Plugin, Set<String>>();
     private final Object incomingLock = new Object();
     private final Object outgoingLock = new Object();
+    /**
+     * Immutable snapshot of the incoming registrations by the name of the
+     * channel as it is received, republished whenever they change so that
+     * dispatching a message takes no lock.
+     */
+    private volatile Map<String, IncomingChannel> incomingDispatch = Collections.emptyMap();
+    private final OutgoingMessageQueue outgoingQueue = new OutgoingMessageQueue();
 
     private void addToOutgoing(@NotNull Plugin plugin, @NotNull String channel) {
         synchronized (outgoingLock) {
@@ -106,6 +115,7 @@ public class StandardMessenger implements Messenger {
             }
 
             registrations.add(registration);
+            updateIncomingDispatch(registration.getChannel());
         }
     }
 
@@ -114,6 +124,12 @@ public class StandardMessenger implements Messenger {
             Set<PluginMessageListenerRegistration> registrations = incomingByChannel.get(registration.getChannel());
 
             if (registrations != null) {
+                for (PluginMessageListenerRegistration existing : registrations) {
+                    if (existing.equals(registration)) {
+                        closeAsyncDispatcher(existing);
+                        break;
+                    }
+                }
                 registrations.remove(registration);
 
                 if (registrations.isEmpty()) {
@@ -130,9 +146,47 @@ public class StandardMessenger implements Messenger {
                     incomingByPlugin.remove(registration.getPlugin());
                 }
             }
+
+            updateIncomingDispatch(registration.getChannel());
+        }
+    }
+
+    private static void closeAsyncDispatcher(@NotNull PluginMessageListenerRegistration registration) {
+        AsyncMessageDispatcher dispatcher = registration.getAsyncDispatcher();
+        if (dispatcher != null) {
+            dispatcher.close();
         }
     }
 
+    /**
+     * Republishes the dispatch snapshot with the current registrations of
+     * the given channel. Must be called while holding the incoming lock.
+     *
+     * @param channel corrected name of the channel
+     */
+    private void updateIncomingDispatch(@NotNull String channel) {
+        // validateAndCorrectChannel swaps these two names and returns any
+        // other valid name unchanged, so this is the name of the channel as
+        // it is received
+        String received = channel;
+        if (channel.equals("BungeeCord")) {
+            received = "bungeecord:main";
+        } else if (channel.equals("bungeecord:main")) {
+            received = "BungeeCord";
+        }
+
+        Map<String, IncomingChannel> dispatch = new HashMap<String, IncomingChannel>(incomingDispatch);
+        Set<PluginMessageListenerRegistration> registrations = incomingByChannel.get(channel);
+
+        if (registrations == null) {
+            dispatch.remove(received);
+        } else {
+            dispatch.put(received, new IncomingChannel(channel, registrations.toArray(new PluginMessageListenerRegistration[registrations.size()])));
+        }
+
+        incomingDispatch = dispatch;
+    }
+
     private void removeFromIncoming(@NotNull Plugin plugin, @NotNull String channel) {
         synchronized (incomingLock) {
             Set<PluginMessageListenerRegistration> registrations = incomingByPlugin.get(plugin);
@@ -207,6 +261,21 @@ public class StandardMessenger implements Messenger {
     @Override
     @NotNull
     public PluginMessageListenerRegistration registerIncomingPluginChannel(@NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener) {
+        return registerIncoming(plugin, channel, listener, null);
+    }
+
+    @Override
+    @NotNull
+    public PluginMessageListenerRegistration registerIncomingPluginChannel(@NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener, @NotNull AsyncMessageDelivery delivery) {
+        if (delivery == null) {
+            throw new IllegalArgumentException("Delivery cannot be null");
+        }
+
+        return registerIncoming(plugin, channel, listener, delivery);
+    }
+
+    @NotNull
+    private PluginMessageListenerRegistration registerIncoming(@NotNull Plugin plugin, @NotNull String channel, @NotNull PluginMessageListener listener, @Nullable AsyncMessageDelivery delivery) {
         if (plugin == null) {
             throw new IllegalArgumentException("Plugin cannot be null");
         }
@@ -218,7 +287,7 @@ public class StandardMessenger implements Messenger {
             throw new IllegalArgumentException("Listener cannot be null");
         }
 
-        PluginMessageListenerRegistration result = new PluginMessageListenerRegistration(this, plugin, channel, listener);
+        PluginMessageListenerRegistration result = new PluginMessageListenerRegistration(this, plugin, channel, listener, delivery);
 
         addToIncoming(result);
 
@@ -443,22 +512,119 @@ public class StandardMessenger implements Messenger {
         if (message == null) {
             throw new IllegalArgumentException("Message cannot be null");
         }
-        channel = validateAndCorrectChannel(channel);
 
-        Set<PluginMessageListenerRegistration> registrations = getIncomingChannelRegistrations(channel);
+        IncomingChannel incoming = getIncomingChannel(channel);
+        if (incoming == null) {
+            return;
+        }
+
+        byte[] asyncCopy = null;
+        for (PluginMessageListenerRegistration registration : incoming.registrations) {
+            AsyncMessageDispatcher dispatcher = registration.getAsyncDispatcher();
+            if (dispatcher != null) {
+                // The array may be modified by other listeners once this returns
+                if (asyncCopy == null) {
+                    asyncCopy = message.clone();
+                }
+                dispatcher.dispatch(source, incoming.channel, asyncCopy);
+                continue;
+            }
 
-        for (PluginMessageListenerRegistration registration : registrations) {
             try {
-                registration.getListener().onPluginMessageReceived(channel, source, message);
+                registration.getListener().onPluginMessageReceived(incoming.channel, source, message);
             } catch (Throwable t) {
-                registration.getPlugin().getLogger().log(Level.WARNING,
-                    String.format("Plugin %s generated an exception whilst handling plugin message",
-                        registration.getPlugin().getDescription().getFullName()
-                    ), t);
+                logListenerException(registration, t);
             }
         }
     }
 
+    @Override
+    public void dispatchIncomingMessage(@NotNull Player source, @NotNull String channel, @NotNull ByteBuffer message) {
+        if (source == null) {
+            throw new IllegalArgumentException("Player source cannot be null");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        IncomingChannel incoming = getIncomingChannel(channel);
+        if (incoming == null) {
+            return;
+        }
+
+        byte[] asyncCopy = null;
+        for (PluginMessageListenerRegistration registration : incoming.registrations) {
+            AsyncMessageDispatcher dispatcher = registration.getAsyncDispatcher();
+            if (dispatcher != null) {
+                // The buffer is only valid until this returns
+                if (asyncCopy == null) {
+                    asyncCopy = new byte[message.remaining()];
+                    message.duplicate().get(asyncCopy);
+                }
+                dispatcher.dispatch(source, incoming.channel, asyncCopy);
+                continue;
+            }
+
+            try {
+                // Every listener gets its own view, so reads cannot affect the others
+                registration.getListener().onPluginMessageReceived(incoming.channel, source, message.asReadOnlyBuffer());
+            } catch (Throwable t) {
+                logListenerException(registration, t);
+            }
+        }
+    }
+
+    @Nullable
+    private IncomingChannel getIncomingChannel(@Nullable String channel) {
+        IncomingChannel incoming = (channel == null) ? null : incomingDispatch.get(channel);
+        if (incoming == null) {
+            // Nothing is registered, but invalid channels must still be rejected
+            validateAndCorrectChannel(channel);
+        }
+        return incoming;
+    }
+
+    static void logListenerException(@NotNull PluginMessageListenerRegistration registration, @NotNull Throwable t) {
+        registration.getPlugin().getLogger().log(Level.WARNING,
+            String.format("Plugin %s generated an exception whilst handling plugin message",
+                registration.getPlugin().getDescription().getFullName()
+            ), t);
+    }
+
+    @Override
+    public void queuePluginMessage(@NotNull Plugin source, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @NotNull byte[] message) {
+        queuePluginMessage(source, recipient, channel, null, message);
+    }
+
+    @Override
+    public void queuePluginMessage(@NotNull Plugin source, @NotNull PluginMessageRecipient recipient, @NotNull String channel, @Nullable Object key, @NotNull byte[] message) {
+        if (source == null) {
+            throw new IllegalArgumentException("Plugin source cannot be null");
+        }
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (message.length > Messenger.MAX_MESSAGE_SIZE) {
+            throw new MessageTooLargeException(message);
+        }
+
+        outgoingQueue.queue(source, recipient, channel, key, message);
+    }
+
+    @Override
+    public void flushQueuedMessages() {
+        outgoingQueue.flush(this);
+    }
+
+    @Override
+    @NotNull
+    public Map<String, PluginChannelStats> getOutgoingChannelStats() {
+        return outgoingQueue.getStats();
+    }
+
     /**
      * Validates a Plugin Channel name.
      *
@@ -525,6 +691,32 @@ public class StandardMessenger implements Messenger {
      *     registered for this plugin.
      */
     public static void validatePluginMessage(@NotNull Messenger messenger, @NotNull Plugin source, @NotNull String channel, @NotNull byte[] message) {
+        validatePluginMessage(messenger, source, channel, message, (message == null) ? 0 : message.length);
+    }
+
+    /**
+     * Validates the input of a Plugin Message consisting of the remaining
+     * bytes of a buffer, ensuring the arguments are all valid.
+     *
+     * @param messenger Messenger to use for validation.
+     * @param source Source plugin of the Message.
+     * @param channel Plugin Channel to send the message by.
+     * @param message Raw message payload to send.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, channel or message
+     *     is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNameTooLongException Thrown if the channel name is too
+     *     long.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public static void validatePluginMessage(@NotNull Messenger messenger, @NotNull Plugin source, @NotNull String channel, @NotNull ByteBuffer message) {
+        validatePluginMessage(messenger, source, channel, message, (message == null) ? 0 : message.remaining());
+    }
+
+    private static void validatePluginMessage(@NotNull Messenger messenger, @NotNull Plugin source, @NotNull String channel, @Nullable Object message, int length) {
         if (messenger == null) {
             throw new IllegalArgumentException("Messenger cannot be null");
         }
@@ -540,9 +732,19 @@ public class StandardMessenger implements Messenger {
         if (!messenger.isOutgoingChannelRegistered(source, channel)) {
             throw new ChannelNotRegisteredException(channel);
         }
-        if (message.length > Messenger.MAX_MESSAGE_SIZE) {
-            throw new MessageTooLargeException(message);
+        if (length > Messenger.MAX_MESSAGE_SIZE) {
+            throw new MessageTooLargeException(length);
         }
         validateChannel(channel);
     }
+
+    private static final class IncomingChannel {
+        private final String channel;
+        private final PluginMessageListenerRegistration[] registrations;
+
+        private IncomingChannel(@NotNull String channel, @NotNull PluginMessageListenerRegistration[] registrations) {
+            this.channel = channel;
+            this.registrations = registrations;
+        }
+    }
 }
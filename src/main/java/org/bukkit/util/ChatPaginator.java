@@ -1,9 +1,10 @@
 package org.bukkit.util;
 
+import com.google.common.base.Preconditions;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 import org.bukkit.ChatColor;
+import org.bukkit.map.MapFont;
+import org.bukkit.map.MinecraftFont;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,6 +20,12 @@ public class ChatPaginator {
     public static final int OPEN_CHAT_PAGE_HEIGHT = 20; // The height of an expanded chat window
     public static final int CLOSED_CHAT_PAGE_HEIGHT = 10; // The height of the default chat window
     public static final int UNBOUNDED_PAGE_HEIGHT = Integer.MAX_VALUE;
+    public static final int CHAT_PAGE_PIXEL_WIDTH = 320; // The width of the default chat window in pixels
+    /**
+     * Width assumed for characters a font has no sprite for, which is the
+     * width of the widest characters of the Minecraft font.
+     */
+    private static final int UNKNOWN_CHAR_WIDTH = 8;
 
     /**
      * Breaks a raw string up into pages using the default width and height.
@@ -43,8 +50,21 @@ public class ChatPaginator {
      */
     @NotNull
     public static ChatPage paginate(@Nullable String unpaginatedString, int pageNumber, int lineLength, int pageHeight) {
-        String[] lines = wordWrap(unpaginatedString, lineLength);
+        return paginate(wordWrap(unpaginatedString, lineLength), pageNumber, pageHeight);
+    }
 
+    /**
+     * Breaks lines which were already word wrapped up into pages using a
+     * provided height.
+     *
+     * @param lines The lines to break, as returned by
+     *     {@link #wordWrap(String, int)}.
+     * @param pageNumber The page number to fetch.
+     * @param pageHeight The desired number of lines in a page.
+     * @return A single chat page.
+     */
+    @NotNull
+    public static ChatPage paginate(@NotNull String[] lines, int pageNumber, int pageHeight) {
         int totalPages = lines.length / pageHeight + (lines.length % pageHeight == 0 ? 0 : 1);
         int actualPageNumber = pageNumber <= totalPages ? pageNumber : totalPages;
 
@@ -71,77 +91,285 @@ public class ChatPaginator {
         }
 
         // A string shorter than the lineWidth is a single line
-        if (rawString.length() <= lineLength && !rawString.contains("\n")) {
+        if (rawString.length() <= lineLength && rawString.indexOf('\n') == -1) {
             return new String[] {rawString};
         }
 
-        char[] rawChars = (rawString + ' ').toCharArray(); // add a trailing space to trigger pagination
-        StringBuilder word = new StringBuilder();
-        StringBuilder line = new StringBuilder();
-        List<String> lines = new LinkedList<String>();
+        // Lines are ranges of the raw string, as words are only ever joined
+        // by the single space which separated them
+        Lines lines = new Lines(rawString);
+        int length = rawString.length();
+        int wordStart = 0;
+        int lineStart = 0;
+        int lineEnd = 0;
         int lineColorChars = 0;
 
-        for (int i = 0; i < rawChars.length; i++) {
-            char c = rawChars[i];
+        for (int i = 0; i <= length; i++) {
+            char c = (i < length) ? rawString.charAt(i) : ' '; // a trailing space triggers pagination
 
             // skip chat color modifiers
-            if (c == ChatColor.COLOR_CHAR) {
-                word.append(ChatColor.getByChar(rawChars[i + 1]));
+            if (isColorCode(rawString, i)) {
                 lineColorChars += 2;
                 i++; // Eat the next character as we have already processed it
                 continue;
             }
 
             if (c == ' ' || c == '\n') {
-                if (line.length() == 0 && word.length() > lineLength) { // special case: extremely long word begins a line
-                    for (String partialWord : word.toString().split("(?<=\\G.{" + lineLength + "})")) {
-                        lines.add(partialWord);
+                int lineLen = lineEnd - lineStart;
+                int wordLength = i - wordStart;
+                if (lineLen == 0 && wordLength > lineLength) { // special case: extremely long word begins a line
+                    for (int from = wordStart; from < i; ) {
+                        int to = nextChunk(rawString, from, i, lineLength);
+                        lines.add(from, to);
+                        from = to;
                     }
-                } else if (line.length() + 1 + word.length() - lineColorChars == lineLength) { // Line exactly the correct length...newline
-                    if (line.length() > 0) {
-                        line.append(' ');
+                } else if (lineLen + 1 + wordLength - lineColorChars == lineLength) { // Line exactly the correct length...newline
+                    if (lineLen == 0) {
+                        lineStart = wordStart;
                     }
-                    line.append(word);
-                    lines.add(line.toString());
-                    line = new StringBuilder();
+                    lines.add(lineStart, i);
+                    lineStart = lineEnd = i;
                     lineColorChars = 0;
-                } else if (line.length() + 1 + word.length() - lineColorChars > lineLength) { // Line too long...break the line
-                    for (String partialWord : word.toString().split("(?<=\\G.{" + lineLength + "})")) {
-                        lines.add(line.toString());
-                        line = new StringBuilder(partialWord);
-                    }
+                } else if (lineLen + 1 + wordLength - lineColorChars > lineLength) { // Line too long...break the line
+                    int from = wordStart;
+                    do {
+                        lines.add(lineStart, lineEnd);
+                        lineStart = from;
+                        lineEnd = from = nextChunk(rawString, from, i, lineLength);
+                    } while (from < i);
                     lineColorChars = 0;
                 } else {
-                    if (line.length() > 0) {
-                        line.append(' ');
+                    if (lineLen == 0) {
+                        lineStart = wordStart;
                     }
-                    line.append(word);
+                    lineEnd = i;
                 }
-                word = new StringBuilder();
+                wordStart = i + 1;
 
                 if (c == '\n') { // Newline forces the line to flush
-                    lines.add(line.toString());
-                    line = new StringBuilder();
+                    lines.add(lineStart, lineEnd);
+                    lineStart = lineEnd = i;
                 }
+            }
+        }
+
+        if (lineEnd > lineStart) { // Only add the last line if there is anything to add
+            lines.add(lineStart, lineEnd);
+        }
+        return lines.toArray();
+    }
+
+    /**
+     * Breaks a raw string up into a series of lines fitting the given width
+     * in pixels when drawn with the given font, like the
+     * {@link MinecraftFont#Font Minecraft font} of the chat.
+     * <p>
+     * Words are wrapped using spaces as delimiters and the newline character
+     * is respected. Words wider than a line are broken between characters.
+     * Every character takes its width plus a pixel of spacing, and another
+     * pixel when it is bold, while color codes take no space and are
+     * carried over to the following lines.
+     *
+     * @param rawString The raw string to break.
+     * @param lineWidth The width of a line of text in pixels.
+     * @param font The font measuring the characters.
+     * @return An array of word-wrapped lines.
+     */
+    @NotNull
+    public static String[] wordWrap(@Nullable String rawString, int lineWidth, @NotNull MapFont font) {
+        Preconditions.checkArgument(lineWidth > 0, "Line width must be positive");
+        Preconditions.checkArgument(font != null, "Font cannot be null");
+
+        // A null string is a single line
+        if (rawString == null) {
+            return new String[] {""};
+        }
+
+        Lines lines = new Lines(rawString);
+        int length = rawString.length();
+        int lineStart = 0;
+        int lineEnd = 0;
+        int width = 0;
+        boolean bold = false;
+
+        for (int i = 0; i <= length; ) {
+            // Measure the next word, with the formatting it starts with
+            int wordEnd = i;
+            int wordWidth = 0;
+            boolean wordBold = bold;
+            while (wordEnd < length && rawString.charAt(wordEnd) != ' ' && rawString.charAt(wordEnd) != '\n') {
+                if (isColorCode(rawString, wordEnd)) {
+                    wordBold = isBold(wordBold, rawString.charAt(wordEnd + 1));
+                    wordEnd += 2;
+                } else {
+                    wordWidth += getAdvance(font, rawString.charAt(wordEnd), wordBold);
+                    wordEnd++;
+                }
+            }
+
+            boolean empty = lineEnd == lineStart;
+            int separator = empty ? 0 : getAdvance(font, ' ', bold);
+            if (empty && wordEnd == i) {
+                // Drop the spaces at the start of a line
+                lineStart = lineEnd = Math.min(wordEnd + 1, length);
+            } else if (width + separator + wordWidth <= lineWidth) {
+                if (empty) {
+                    lineStart = i;
+                }
+                lineEnd = wordEnd;
+                width += separator + wordWidth;
             } else {
-                word.append(c);
+                if (!empty) {
+                    lines.add(lineStart, lineEnd);
+                }
+                lineStart = i;
+                lineEnd = wordEnd;
+                width = wordWidth;
+
+                if (wordWidth > lineWidth) { // Word too wide...break it between characters
+                    width = 0;
+                    boolean charBold = bold;
+                    for (int j = i; j < wordEnd; ) {
+                        if (isColorCode(rawString, j)) {
+                            charBold = isBold(charBold, rawString.charAt(j + 1));
+                            j += 2;
+                            continue;
+                        }
+                        int advance = getAdvance(font, rawString.charAt(j), charBold);
+                        if (width > 0 && width + advance > lineWidth) {
+                            lines.add(lineStart, j);
+                            lineStart = j;
+                            width = 0;
+                        }
+                        width += advance;
+                        j++;
+                    }
+                }
+            }
+            bold = wordBold;
+
+            if (wordEnd < length && rawString.charAt(wordEnd) == '\n') { // Newline forces the line to flush
+                lines.add(lineStart, lineEnd);
+                lineStart = lineEnd = wordEnd + 1;
+                width = 0;
             }
+            i = wordEnd + 1;
         }
 
-        if (line.length() > 0) { // Only add the last line if there is anything to add
-            lines.add(line.toString());
+        if (lineEnd > lineStart || lines.size == 0) { // Only add the last line if there is anything to add
+            lines.add(lineStart, lineEnd);
         }
+        return lines.toArray();
+    }
+
+    /**
+     * Checks whether the character at the given index starts a color code,
+     * which is the color character followed by any character but a space
+     * or a newline.
+     */
+    private static boolean isColorCode(@NotNull String rawString, int index) {
+        if (index + 1 >= rawString.length() || rawString.charAt(index) != ChatColor.COLOR_CHAR) {
+            return false;
+        }
+        char code = rawString.charAt(index + 1);
+        return code != ' ' && code != '\n';
+    }
+
+    /**
+     * Gets whether the text following a code is bold, as colors and resets
+     * clear the formatting.
+     */
+    private static boolean isBold(boolean bold, char code) {
+        code = Character.toLowerCase(code);
+        if (code == 'l') {
+            return true;
+        }
+        return bold && !((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f') || code == 'r' || code == 'x');
+    }
+
+    /**
+     * Gets the width in pixels a character takes in a line, including the
+     * spacing after it.
+     */
+    private static int getAdvance(@NotNull MapFont font, char c, boolean bold) {
+        int width;
+        if (font == MinecraftFont.Font && c < MinecraftFontWidths.WIDTHS.length) {
+            width = MinecraftFontWidths.WIDTHS[c];
+        } else {
+            MapFont.CharacterSprite sprite = font.getChar(c);
+            width = (sprite == null) ? UNKNOWN_CHAR_WIDTH : sprite.getWidth();
+        }
+        return width + (bold ? 2 : 1);
+    }
+
+    /**
+     * Finds the end of the next piece of a word broken into pieces of the
+     * given length, in the same way as splitting it with the pattern
+     * {@code (?<=\G.{lineLength})}. Once the next piece would contain a line
+     * terminator or a surrogate pair, which the pattern does not match, the
+     * rest of the word is a single piece.
+     */
+    private static int nextChunk(@NotNull String rawString, int from, int end, int lineLength) {
+        if (end - from <= lineLength) {
+            return end;
+        }
+        for (int i = from; i < from + lineLength; i++) {
+            char c = rawString.charAt(i);
+            if (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' || (Character.isHighSurrogate(c) && Character.isLowSurrogate(rawString.charAt(i + 1)))) {
+                return end;
+            }
+        }
+        return from + lineLength;
+    }
+
+    /**
+     * The lines wrapped from a raw string, with the last colors of every
+     * line applied to the beginning of the next.
+     */
+    private static final class Lines {
+        private final String rawString;
+        private String[] lines = new String[8];
+        private int size;
+        private String colors = "";
+
+        private Lines(@NotNull String rawString) {
+            this.rawString = rawString;
+        }
+
+        private void add(int start, int end) {
+            String line = rawString.substring(start, end);
+            if (!colors.isEmpty()) {
+                line = colors.concat(line);
+            }
+            if (line.indexOf(ChatColor.COLOR_CHAR) != -1) {
+                colors = ChatColor.getLastColors(line);
+            }
 
-        // Iterate over the wrapped lines, applying the last color from one line to the beginning of the next
-        for (int i = 1; i < lines.size(); i++) {
-            final String pLine = lines.get(i - 1);
-            final String subLine = lines.get(i);
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+            }
+            lines[size++] = line;
+        }
 
-            String color = ChatColor.getLastColors(pLine);
-            lines.set(i, color + subLine);
+        @NotNull
+        private String[] toArray() {
+            return (size == lines.length) ? lines : Arrays.copyOf(lines, size);
         }
+    }
 
-        return lines.toArray(new String[lines.size()]);
+    /**
+     * The widths of the characters of the Minecraft font below 256, which
+     * are looked up without boxing the characters.
+     */
+    private static final class MinecraftFontWidths {
+        private static final int[] WIDTHS = new int[256];
+
+        static {
+            for (char c = 0; c < WIDTHS.length; c++) {
+                MapFont.CharacterSprite sprite = MinecraftFont.Font.getChar(c);
+                WIDTHS[c] = (sprite == null) ? UNKNOWN_CHAR_WIDTH : sprite.getWidth();
+            }
+        }
     }
 
     public static class ChatPage {